@@ -52,7 +52,19 @@ tasks.named<Task>("check") {
 
 tasks.named<Test>("test") {
 	// Use JUnit Jupiter for unit tests.
-	useJUnitPlatform()
+	useJUnitPlatform {
+		excludeTags("benchmark")
+	}
+}
+
+// Add a task to run the benchmarks, they are not part of `check`
+val benchmark by tasks.registering(Test::class) {
+	testClassesDirs = sourceSets["test"].output.classesDirs
+	classpath = sourceSets["test"].runtimeClasspath
+	useJUnitPlatform {
+		includeTags("benchmark")
+	}
+	testLogging.showStandardStreams = true
 }
 
 afterEvaluate {
@@ -5,6 +5,7 @@ package ushiosan.custom.jfx;
 
 import org.gradle.testkit.runner.BuildResult;
 import org.gradle.testkit.runner.GradleRunner;
+import org.gradle.testkit.runner.TaskOutcome;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
@@ -12,11 +13,14 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.Writer;
+import java.nio.file.Files;
+import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
- * A simple functional test for the 'ushiosan.custom.jfx.greeting' plugin.
+ * A simple functional test for the 'io.github.ushiosan23.custom_jfx_plugin' plugin.
  */
 class CustomJfxPluginPluginFunctionalTest {
 	
@@ -35,20 +39,62 @@ class CustomJfxPluginPluginFunctionalTest {
 	void canRunTask() throws IOException {
 		writeString(getSettingsFile(), "");
 		writeString(getBuildFile(),
-					"plugins {" +
-					"  id('ushiosan.custom.jfx.greeting')" +
-					"}");
+					"plugins {\n" +
+					"  id('java')\n" +
+					"  id('io.github.ushiosan23.custom_jfx_plugin')\n" +
+					"}\n");
 		
 		// Run the build
 		GradleRunner runner = GradleRunner.create();
 		runner.forwardOutput();
 		runner.withPluginClasspath();
-		runner.withArguments("greeting");
+		runner.withArguments("tasks", "--all");
 		runner.withProjectDir(projectDir);
 		BuildResult result = runner.build();
 		
 		// Verify the result
-		assertTrue(result.getOutput().contains("Hello from plugin 'ushiosan.custom.jfx.greeting'"));
+		assertTrue(result.getOutput().contains("customJfxRunConfig"));
+	}
+	
+	@Test
+	void reuseConfigurationCache() throws IOException {
+		// A local SDK, so the dependencies are resolved without network
+		File sdkDirectory = new File(projectDir, "javafx-sdk");
+		assertTrue(new File(sdkDirectory, "lib").mkdirs());
+		writeString(new File(sdkDirectory, "release"), "JAVAFX_VERSION=\"21.0.1\"\n");
+		writeString(new File(sdkDirectory, "lib/javafx.base.jar"), "");
+		
+		writeString(getSettingsFile(), "");
+		writeString(getBuildFile(),
+					"import custom_jfx_plugin.configuration.JfxModule\n" +
+					"plugins {\n" +
+					"  id('application')\n" +
+					"  id('io.github.ushiosan23.custom_jfx_plugin')\n" +
+					"}\n" +
+					"customJfx {\n" +
+					"  sdk.set(file('javafx-sdk'))\n" +
+					"  modules.set([JfxModule.BASE])\n" +
+					"}\n");
+		
+		// Run the build twice, the second one must skip the configuration
+		GradleRunner runner = GradleRunner.create();
+		runner.forwardOutput();
+		runner.withPluginClasspath();
+		runner.withArguments("customJfxRunConfig", "--configuration-cache");
+		runner.withProjectDir(projectDir);
+		runner.build();
+		BuildResult result = runner.build();
+		
+		// Verify the result
+		assertTrue(result.getOutput().contains("Reusing configuration cache."));
+		assertEquals(TaskOutcome.UP_TO_DATE, result.task(":customJfxRunConfig").getOutcome());
+		
+		// The module path contains the SDK jars of the current platform
+		List<String> arguments = Files.readAllLines(new File(projectDir, "build/custom-jfx/run.args").toPath());
+		String modulePath = arguments.get(arguments.indexOf("--module-path") + 1);
+		assertTrue(modulePath.contains("javafx-sdk"));
+		assertTrue(modulePath.endsWith("javafx.base.jar\""));
+		assertEquals("javafx.base", arguments.get(arguments.indexOf("--add-modules") + 1));
 	}
 	
 	private void writeString(File file, String string) throws IOException {
@@ -1,14 +1,109 @@
 package custom_jfx_plugin;
 
+import custom_jfx_plugin.configuration.JfxModule;
 import custom_jfx_plugin.configuration.JfxOptions;
+import custom_jfx_plugin.dependency.JfxResolverService;
+import custom_jfx_plugin.dependency.ResolverBackend;
+import custom_jfx_plugin.dependency.base.DependencyDiskCache;
+import custom_jfx_plugin.dependency.base.HttpOptions;
+import custom_jfx_plugin.dependency.base.SpecialVersionResolver;
+import custom_jfx_plugin.dependency.maven.MavenResolver;
+import custom_jfx_plugin.task.JfxPrefetchTask;
 import custom_jfx_plugin.task.JfxRunConfigTask;
+import custom_jfx_plugin.utils.ModuleUtils;
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.plugins.ApplicationPlugin;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.provider.ProviderFactory;
+import org.gradle.api.tasks.JavaExec;
+import org.gradle.api.tasks.TaskProvider;
 import org.javamodularity.moduleplugin.ModuleSystemPlugin;
+import org.javamodularity.moduleplugin.extensions.RunModuleOptions;
 import org.jetbrains.annotations.NotNull;
+import ushiosan.jvm_utilities.lang.Obj;
+import ushiosan.jvm_utilities.system.Arch;
+import ushiosan.jvm_utilities.system.Platform;
+
+import java.io.File;
+import java.net.URI;
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.Set;
 
 public class CustomJfxPlugin implements Plugin<Project> {
 	
+	/**
+	 * Gradle property with the time that a resolved special version is valid (ISO-8601 format, e.g. {@code PT12H})
+	 */
+	private static final String CACHE_TTL_PROPERTY = "customJfx.cache.ttl";
+	
+	/**
+	 * Gradle property to use expired resolutions while they are refreshed in background
+	 */
+	private static final String CACHE_STALE_WHILE_REVALIDATE_PROPERTY = "customJfx.cache.staleWhileRevalidate";
+	
+	/**
+	 * Gradle property with the max number of resolutions kept in memory during the build
+	 */
+	private static final String CACHE_MAX_ENTRIES_PROPERTY = "customJfx.cache.maxEntries";
+	
+	/**
+	 * Gradle property with the resolver backend ({@code search} or {@code metadata})
+	 */
+	private static final String RESOLVER_BACKEND_PROPERTY = "customJfx.resolver";
+	
+	/**
+	 * Gradle property with the search service location used by the search backend
+	 */
+	private static final String SEARCH_LOCATION_PROPERTY = "customJfx.search.url";
+	
+	/**
+	 * Gradle property with the time to wait the response of each request (ISO-8601 format)
+	 */
+	private static final String HTTP_TIMEOUT_PROPERTY = "customJfx.http.timeout";
+	
+	/**
+	 * Gradle property with the number of retries of each request
+	 */
+	private static final String HTTP_RETRIES_PROPERTY = "customJfx.http.retries";
+	
+	/**
+	 * Gradle property with the time to wait before send a hedged request (ISO-8601 format)
+	 */
+	private static final String HTTP_HEDGE_DELAY_PROPERTY = "customJfx.http.hedgeDelay";
+	
+	/**
+	 * Gradle property with the max time of a whole resolution (ISO-8601 format)
+	 */
+	private static final String HTTP_BUDGET_PROPERTY = "customJfx.http.budget";
+	
+	/**
+	 * Persistent cache directory relative to the gradle user home
+	 */
+	private static final String CACHE_DIRECTORY = "caches/custom-jfx-plugin";
+	
+	/**
+	 * Gradle module cache directory relative to the gradle user home
+	 */
+	private static final String MODULE_CACHE_DIRECTORY = "caches/modules-2/files-2.1";
+	
+	/**
+	 * Task that generates the JVM argument file of the run task
+	 */
+	private static final String RUN_CONFIG_TASK_NAME = "customJfxRunConfig";
+	
+	/**
+	 * Task that downloads the JavaFX modules of all platforms
+	 */
+	private static final String PREFETCH_TASK_NAME = "customJfxPrefetch";
+	
+	/**
+	 * JVM argument file of the run task relative to the build directory
+	 */
+	private static final String RUN_ARGUMENTS_FILE = "custom-jfx/run.args";
+	
 	/**
 	 * Apply this plugin to the given target object.
 	 *
@@ -19,13 +114,149 @@ public class CustomJfxPlugin implements Plugin<Project> {
 		// Register some plugins
 		project.getPlugins().apply(ModuleSystemPlugin.class);
 		
+		// Register dependency resolver
+		Provider<JfxResolverService> resolverService = registerResolverService(project);
+		
 		// Register plugin configuration
-		project.getExtensions()
-			.create("customJfx", JfxOptions.class, project);
+		JfxOptions options = project.getExtensions()
+			.create("customJfx", JfxOptions.class, project, resolverService);
 		
 		// Register tasks
+		TaskProvider<JfxRunConfigTask> runConfig = project.getTasks()
+			.register(RUN_CONFIG_TASK_NAME, JfxRunConfigTask.class, task -> task.getArgumentsFile()
+				.set(project.getLayout().getBuildDirectory().file(RUN_ARGUMENTS_FILE)));
 		project.getTasks()
-			.create("customJfxRunConfig", JfxRunConfigTask.class, project);
+			.register(PREFETCH_TASK_NAME, JfxPrefetchTask.class, task -> configurePrefetchTask(project, options, task))
+			.configure(task -> task.usesService(resolverService));
+		
+		// The options are declared in the build script, so the run task is configured after it
+		project.afterEvaluate(it -> configureRunTask(it, options, runConfig));
+	}
+	
+	/* -----------------------------------------------------------------------
+	 * Internal methods
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Configure the application run task with the JavaFX modules. Only configuration time values
+	 * and providers are used, so the run task can be stored in the configuration cache.
+	 *
+	 * @param project   The target object
+	 * @param options   the plugin configuration
+	 * @param runConfig the task that generates the JVM argument file
+	 */
+	private void configureRunTask(@NotNull Project project, @NotNull JfxOptions options,
+		@NotNull TaskProvider<JfxRunConfigTask> runConfig) {
+		// Check if java executable exists
+		JavaExec javaExecTask = Obj.cast(project.getTasks().findByName(ApplicationPlugin.TASK_RUN_NAME));
+		if (Obj.isNull(javaExecTask) || options.modules.isNotPresent()) return;
+		
+		// Task configuration
+		Set<JfxModule> modules = EnumSet.noneOf(JfxModule.class);
+		modules.addAll(ModuleUtils.resolveAndCleanModules(options.modules.getOrElseThrow("modules")));
+		String classifier = ModuleUtils.getPlatformArtifactConfig(
+			options.platform.getOrElse(Platform.getRunningPlatform()),
+			options.arch.getOrElse(Arch.getRunningArch())).first;
+		RunModuleOptions moduleOpts = javaExecTask.getExtensions()
+			.findByType(RunModuleOptions.class);
+		
+		FileCollection classpath = javaExecTask.getClasspath();
+		FileCollection classpathWithoutJfx = classpath.filter(new JfxRunConfigTask.JfxJarFilter(modules, classifier,
+																							  false));
+		
+		// Check if module options exists
+		if (Obj.isNotNull(moduleOpts)) {
+			// Attach valid project classpath
+			FileCollection classpathJfxJars = classpath.filter(new JfxRunConfigTask.JfxJarFilter(modules, classifier,
+																							   true));
+			javaExecTask.setClasspath(classpathWithoutJfx.plus(classpathJfxJars));
+			modules.forEach(it -> moduleOpts.getAddModules().add(ModuleUtils.resolveModuleName(it)));
+			return;
+		}
+		
+		// Attach valid project classpath and the generated JVM arguments
+		runConfig.configure(task -> {
+			task.getModules().set(modules);
+			task.getClassifier().set(classifier);
+			task.getRuntimeClasspath().from(classpath);
+		});
+		javaExecTask.setClasspath(classpathWithoutJfx);
+		javaExecTask.getJvmArgumentProviders()
+			.add(new JfxRunConfigTask.ArgumentsFileProvider(runConfig.flatMap(JfxRunConfigTask::getArgumentsFile)));
+		javaExecTask.dependsOn(runConfig);
+	}
+	
+	/**
+	 * Configure the prefetch task with the modules of all platforms. The platforms configuration
+	 * is created at configuration time and resolved by the task, so the task doesn't use
+	 * the project during the execution.
+	 *
+	 * @param project The target object
+	 * @param options the plugin configuration
+	 * @param task    the prefetch task
+	 */
+	private void configurePrefetchTask(@NotNull Project project, @NotNull JfxOptions options,
+		@NotNull JfxPrefetchTask task) {
+		Set<String> classifiers = ModuleUtils.getAllPlatformClassifiers();
+		task.getClassifiers().set(classifiers);
+		task.getModules().set(project.provider(() -> options.modules.isPresent() ?
+			ModuleUtils.resolveAndCleanModules(options.modules.getOrElseThrow("modules")) : Set.of()));
+		task.getSdk().set(project.provider(options.sdk::isPresent));
+		task.getModuleCacheDirectory().set(new File(project.getGradle().getGradleUserHomeDir(), MODULE_CACHE_DIRECTORY));
+		
+		// A single configuration with all platforms, so gradle downloads all artifacts in parallel.
+		// The artifacts are resolved by the task, the ones that are not published are skipped and reported.
+		task.getArtifacts().from(options.createPlatformsConfiguration(classifiers)
+									 .getIncoming()
+									 .artifactView(view -> view.lenient(true))
+									 .getFiles());
+	}
+	
+	/**
+	 * Register the dependency resolver shared by all projects of the build. The service
+	 * is created only when a JavaFX version must be resolved.
+	 *
+	 * @param project The target object
+	 * @return the resolver service provider
+	 */
+	private @NotNull Provider<JfxResolverService> registerResolverService(@NotNull Project project) {
+		ProviderFactory providers = project.getProviders();
+		File userHome = project.getGradle().getGradleUserHomeDir();
+		boolean offline = project.getGradle().getStartParameter().isOffline();
+		
+		return project.getGradle().getSharedServices()
+			.registerIfAbsent(JfxResolverService.SERVICE_NAME, JfxResolverService.class, spec -> {
+				JfxResolverService.Parameters parameters = spec.getParameters();
+				parameters.getCacheDirectory().set(new File(userHome, CACHE_DIRECTORY));
+				parameters.getCacheTtl().set(providers.gradleProperty(CACHE_TTL_PROPERTY)
+												 .map(Duration::parse)
+												 .orElse(DependencyDiskCache.DEFAULT_TTL));
+				parameters.getStaleWhileRevalidate().set(providers.gradleProperty(CACHE_STALE_WHILE_REVALIDATE_PROPERTY)
+															 .map(Boolean::parseBoolean)
+															 .orElse(false));
+				parameters.getModuleCacheDirectory().set(new File(userHome, MODULE_CACHE_DIRECTORY));
+				parameters.getOffline().set(offline);
+				parameters.getMaxCacheEntries().set(providers.gradleProperty(CACHE_MAX_ENTRIES_PROPERTY)
+														.map(Integer::parseInt)
+														.orElse(SpecialVersionResolver.DEFAULT_MAX_CACHE_ENTRIES));
+				parameters.getBackend().set(providers.gradleProperty(RESOLVER_BACKEND_PROPERTY)
+												.map(ResolverBackend::fromName)
+												.orElse(ResolverBackend.SEARCH));
+				parameters.getSearchLocation().set(providers.gradleProperty(SEARCH_LOCATION_PROPERTY)
+													   .map(URI::create)
+													   .orElse(MavenResolver.DEFAULT_SEARCH_LOCATION));
+				parameters.getRequestTimeout().set(providers.gradleProperty(HTTP_TIMEOUT_PROPERTY)
+													   .map(Duration::parse)
+													   .orElse(HttpOptions.DEFAULT_REQUEST_TIMEOUT));
+				parameters.getMaxRetries().set(providers.gradleProperty(HTTP_RETRIES_PROPERTY)
+												   .map(Integer::parseInt)
+												   .orElse(HttpOptions.DEFAULT_MAX_RETRIES));
+				parameters.getHedgeDelay().set(providers.gradleProperty(HTTP_HEDGE_DELAY_PROPERTY)
+												   .map(Duration::parse));
+				parameters.getResolutionBudget().set(providers.gradleProperty(HTTP_BUDGET_PROPERTY)
+														 .map(Duration::parse)
+														 .orElse(HttpOptions.DEFAULT_BUDGET));
+			});
 	}
 	
 }
@@ -2,6 +2,12 @@ package custom_jfx_plugin.configuration;
 
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 public enum JfxModule {
 	/**
 	 * Only the base of content of JavaFX
@@ -45,6 +51,13 @@ public enum JfxModule {
 	 */
 	private final JfxModule[] dependencies;
 	
+	/**
+	 * Transitive dependencies of each module, including the module itself. The enum constants can
+	 * only reference the constants declared before them, so the declaration order is a topological
+	 * order and the sets iterate the dependencies before the modules that use them.
+	 */
+	private static final Map<JfxModule, Set<JfxModule>> CLOSURES = computeClosures();
+	
 	/* -----------------------------------------------------------------------
 	 * Constructor
 	 * -----------------------------------------------------------------------*/
@@ -71,4 +84,36 @@ public enum JfxModule {
 		return dependencies;
 	}
 	
+	/**
+	 * Returns the module and all its transitive dependencies in topological order.
+	 * {@link #ALL} is not a real module, so it is not included in its own closure.
+	 *
+	 * @return the module closure
+	 */
+	public @NotNull Set<JfxModule> closure() {
+		return CLOSURES.get(this);
+	}
+	
+	/* -----------------------------------------------------------------------
+	 * Internal methods
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Compute the transitive dependencies of all modules. The dependencies are always declared
+	 * before, so its closures are already computed.
+	 *
+	 * @return the closure of each module
+	 */
+	private static @NotNull Map<JfxModule, Set<JfxModule>> computeClosures() {
+		Map<JfxModule, Set<JfxModule>> closures = new EnumMap<>(JfxModule.class);
+		for (JfxModule module : values()) {
+			EnumSet<JfxModule> closure = module == ALL ? EnumSet.noneOf(JfxModule.class) : EnumSet.of(module);
+			for (JfxModule dependency : module.dependencies) {
+				closure.addAll(closures.get(dependency));
+			}
+			closures.put(module, Collections.unmodifiableSet(closure));
+		}
+		return closures;
+	}
+	
 }
@@ -1,11 +1,18 @@
 package custom_jfx_plugin.configuration;
 
-import custom_jfx_plugin.dependency.maven.MavenResolver;
+import custom_jfx_plugin.dependency.JfxResolverService;
+import custom_jfx_plugin.dependency.base.Resolver;
 import custom_jfx_plugin.property.ObservableProperty;
 import custom_jfx_plugin.utils.ModuleUtils;
 import custom_jfx_plugin.utils.Msg;
 import org.gradle.api.Project;
 import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.Dependency;
+import org.gradle.api.artifacts.DependencyArtifact;
+import org.gradle.api.artifacts.DependencySet;
+import org.gradle.api.artifacts.ExternalModuleDependency;
+import org.gradle.api.artifacts.repositories.MavenArtifactRepository;
+import org.gradle.api.provider.Provider;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import ushiosan.jvm_utilities.lang.Obj;
@@ -13,9 +20,19 @@ import ushiosan.jvm_utilities.lang.collection.elements.Pair;
 import ushiosan.jvm_utilities.system.Arch;
 import ushiosan.jvm_utilities.system.Platform;
 
+import java.io.File;
+import java.net.URI;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import static ushiosan.jvm_utilities.lang.Obj.toObjString;
 
@@ -24,7 +41,7 @@ public abstract class JfxOptions {
 	/**
 	 * Default JavaFX version
 	 */
-	private static final String DEFAULT_VERSION = "#latest#";
+	public static final String DEFAULT_VERSION = "#latest#";
 	
 	/**
 	 * Default JavaFX dependency configuration
@@ -45,6 +62,11 @@ public abstract class JfxOptions {
 	 */
 	private final Project project;
 	
+	/**
+	 * Dependency resolver service
+	 */
+	private final Provider<JfxResolverService> resolverService;
+	
 	/**
 	 * JavaFX version
 	 */
@@ -70,6 +92,37 @@ public abstract class JfxOptions {
 	 */
 	public final ObservableProperty<String> dependencyConfiguration;
 	
+	/**
+	 * Local JavaFX SDK directory. When it is defined, the SDK jars are used instead of the maven artifacts.
+	 */
+	public final ObservableProperty<File> sdk;
+	
+	/**
+	 * Additional build targets. Each target has its own resolvable configuration with the
+	 * maven artifacts of its platform, so all of them are resolved in the same build.
+	 */
+	public final ObservableProperty<List<JfxTarget>> targets;
+	
+	/**
+	 * Configurations that apply the pending changes and complete the JavaFX versions when they are resolved
+	 */
+	private final Set<String> hookedConfigurations = new HashSet<>();
+	
+	/**
+	 * {@code true} if the options changed since the dependencies were attached
+	 */
+	private boolean changed;
+	
+	/**
+	 * Dependencies attached by the plugin to each configuration, by artifact key
+	 */
+	private final Map<String, Map<String, Dependency>> contributedDependencies = new LinkedHashMap<>();
+	
+	/**
+	 * Resolved JavaFX versions of the current options by platform classifier
+	 */
+	private final Map<String, String> releaseVersions = new HashMap<>();
+	
 	/* -----------------------------------------------------------------------
 	 * Constructors
 	 * -----------------------------------------------------------------------*/
@@ -77,18 +130,20 @@ public abstract class JfxOptions {
 	/**
 	 * Default constructor
 	 *
-	 * @param project Current project
+	 * @param project         Current project
+	 * @param resolverService dependency resolver service
 	 */
-	public JfxOptions(@NotNull Project project) {
+	public JfxOptions(@NotNull Project project, @NotNull Provider<JfxResolverService> resolverService) {
 		this.project = project;
+		this.resolverService = resolverService;
 		// Initialize options properties
 		version = ObservableProperty.create(DEFAULT_VERSION);
 		arch = ObservableProperty.create(Arch.getRunningArch());
 		platform = ObservableProperty.create(Platform.getRunningPlatform());
 		modules = ObservableProperty.create();
 		dependencyConfiguration = ObservableProperty.create(DEFAULT_DEPENDENCY_CONFIGURATION);
-		
-		updateProjectConfiguration(null, true);
+		sdk = ObservableProperty.create();
+		targets = ObservableProperty.create();
 		
 		// Add listeners
 		version.addChangeListener(this::updateVersion);
@@ -96,6 +151,37 @@ public abstract class JfxOptions {
 		platform.addChangeListener(this::updatePlatform);
 		modules.addChangeListener(this::updateModules);
 		dependencyConfiguration.addChangeListener((o, n) -> updateDependencyConfiguration(false, o, n));
+		sdk.addChangeListener(this::updateSdk);
+		targets.addChangeListener(this::updateTargets);
+		
+		// All changes of the build script are applied at once
+		project.afterEvaluate(it -> applyChanges());
+	}
+	
+	/* -----------------------------------------------------------------------
+	 * Methods
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Create a detached configuration with the module artifacts of multiple platforms. The artifacts
+	 * are added when the configuration is resolved, so the configuration can be created at configuration
+	 * time without sending requests.
+	 *
+	 * @param classifiers the platform classifiers
+	 * @return the platforms configuration
+	 */
+	public @NotNull Configuration createPlatformsConfiguration(@NotNull Collection<String> classifiers) {
+		Configuration configuration = project.getConfigurations().detachedConfiguration();
+		// The module dependencies are declared explicitly, the transitive ones use the running platform
+		configuration.setTransitive(false);
+		configuration.withDependencies(dependencies -> {
+			// The SDK jars are never downloaded
+			if (sdk.isPresent() || !modules.isPresent()) return;
+			for (String artifact : resolvePlatformArtifacts(classifiers)) {
+				dependencies.add(project.getDependencies().create(artifact));
+			}
+		});
+		return configuration;
 	}
 	
 	/* -----------------------------------------------------------------------
@@ -105,7 +191,7 @@ public abstract class JfxOptions {
 	private void updateArch(@Nullable Arch old, @Nullable Arch newArch) {
 		if (old != newArch) {
 			Msg.error(project, "Arch update -> %s to %s", toObjString(old), toObjString(newArch));
-			updateProjectConfiguration(null, false);
+			markChanged();
 		}
 	}
 	
@@ -115,77 +201,359 @@ public abstract class JfxOptions {
 			Msg.error(project, "Configuration update %s -> %s to %s", kind,
 					  toObjString(old),
 					  toObjString(newConfiguration));
-			updateProjectConfiguration(old, false);
+			markChanged();
 		}
 	}
 	
 	private void updateModules(@Nullable List<JfxModule> old, @Nullable List<JfxModule> newModules) {
 		Msg.error(project, "Modules update -> %s to %s", toObjString(old), toObjString(newModules));
-		updateProjectConfiguration(null, false);
+		markChanged();
 	}
 	
 	private void updatePlatform(@Nullable Platform old, @Nullable Platform newPlatform) {
 		if (old != newPlatform) {
 			Msg.error(project, "Platform update -> %s to %s", toObjString(old), toObjString(newPlatform));
-			updateProjectConfiguration(null, false);
+			markChanged();
+		}
+	}
+	
+	private void updateSdk(@Nullable File old, @Nullable File newSdk) {
+		if (!Objects.equals(old, newSdk)) {
+			Msg.error(project, "SDK update -> %s to %s", toObjString(old), toObjString(newSdk));
+			markChanged();
+		}
+	}
+	
+	private void updateTargets(@Nullable List<JfxTarget> old, @Nullable List<JfxTarget> newTargets) {
+		if (!Objects.equals(old, newTargets)) {
+			Msg.error(project, "Targets update -> %s to %s", toObjString(old), toObjString(newTargets));
+			markChanged();
 		}
 	}
 	
 	private void updateVersion(@Nullable String old, @Nullable String newVersion) {
 		if (!Objects.equals(old, newVersion)) {
 			Msg.error(project, "Version update -> %s to %s", toObjString(old), toObjString(newVersion));
-			updateProjectConfiguration(null, false);
+			markChanged();
 		}
 	}
 	
 	/**
-	 * Update project dependency configuration
+	 * Mark the options as changed. The changes are applied once, when the build script
+	 * is evaluated or when a configuration is resolved, whatever happens first.
 	 */
-	@SuppressWarnings("DataFlowIssue")
-	private void updateProjectConfiguration(@Nullable String oldConfiguration, boolean silent) {
-		// Check if dependencies exists
-		if (modules.isNotPresent()) return;
-		// Get all project dependencies
-		List<JfxModule> moduleList = modules.getOrElseThrow("modules");
-		Set<String> moduleArtifacts = ModuleUtils.resolveArtifacts(version.getOrElse(DEFAULT_VERSION), moduleList);
-		Pair<String, String> artifactConfiguration = ModuleUtils.getPlatformArtifactConfig(
-			platform.getOrElse(Platform.getRunningPlatform()),
-			arch.getOrElse(Arch.getRunningArch()));
+	private synchronized void markChanged() {
+		changed = true;
+		applyChangesOnResolution(dependencyConfiguration.getOrElse(DEFAULT_DEPENDENCY_CONFIGURATION));
+		applyChangesOnResolution(DEFAULT_TEST_DEPENDENCY_CONFIGURATION);
+	}
+	
+	/**
+	 * Apply the pending changes to the project dependencies
+	 */
+	private synchronized void applyChanges() {
+		if (!changed) return;
+		changed = false;
+		
+		updateProjectConfiguration();
+	}
+	
+	/**
+	 * Update project dependency configuration. Only the difference with the dependencies
+	 * attached before is applied, the unchanged dependencies are not touched.
+	 */
+	private void updateProjectConfiguration() {
+		Map<String, Map<String, Object>> required = new LinkedHashMap<>();
+		if (modules.isPresent()) {
+			List<JfxModule> moduleList = modules.getOrElseThrow("modules");
+			String classifier = ModuleUtils.getPlatformArtifactConfig(
+				platform.getOrElse(Platform.getRunningPlatform()),
+				arch.getOrElse(Arch.getRunningArch())).first;
+			Map<String, Object> artifacts = sdk.isPresent() ? resolveSdkArtifacts(moduleList, classifier) :
+											resolveVersionlessArtifacts(moduleList, classifier);
+			String configurationName = dependencyConfiguration.getOrElse(DEFAULT_DEPENDENCY_CONFIGURATION);
+			required.put(configurationName, artifacts);
+			// The test configuration usually extends the main one, the dependencies are not duplicated
+			if (!extendsConfiguration(DEFAULT_TEST_DEPENDENCY_CONFIGURATION, configurationName)) {
+				required.put(DEFAULT_TEST_DEPENDENCY_CONFIGURATION, artifacts);
+			}
+			
+			// The targets always use the maven artifacts, the SDK only works in its own platform
+			for (JfxTarget target : targets.getOrElse(List.of())) {
+				required.put(createTargetConfiguration(target),
+							 resolveVersionlessArtifacts(moduleList, target.classifier()));
+			}
+		}
+		
+		// The version is resolved when the configuration is resolved for the first time,
+		// so configuring the options (or running tasks without classpath) never sends requests
+		releaseVersions.clear();
+		
+		// Configurations used before are cleaned too
+		Set<String> configurations = new LinkedHashSet<>(contributedDependencies.keySet());
+		configurations.addAll(required.keySet());
+		for (String configuration : configurations) {
+			updateContributedDependencies(configuration, required.getOrDefault(configuration, Map.of()));
+		}
+	}
+	
+	/**
+	 * Check if a configuration contains other configuration in its hierarchy
+	 *
+	 * @param configurationName the configuration name
+	 * @param parentName        the parent configuration name
+	 * @return {@code true} if the configuration extends the parent or {@code false} otherwise
+	 */
+	private boolean extendsConfiguration(@NotNull String configurationName, @NotNull String parentName) {
+		Configuration configuration = project.getConfigurations().findByName(configurationName);
+		if (Obj.isNull(configuration)) return false;
+		
+		return configuration.getHierarchy().stream()
+			.anyMatch(it -> it.getName().equals(parentName));
+	}
+	
+	/**
+	 * Returns the maven artifacts of the modules without version. The requested version is part
+	 * of the artifact key, so a version change replaces the dependencies that were completed
+	 * with the previous version.
+	 *
+	 * @param modules    the required modules
+	 * @param classifier the platform classifier
+	 * @return the dependency notations by artifact key
+	 */
+	private @NotNull Map<String, Object> resolveVersionlessArtifacts(@NotNull List<JfxModule> modules,
+		@NotNull String classifier) {
+		String releaseVersion = version.getOrElse(DEFAULT_VERSION);
+		Map<String, Object> artifacts = new LinkedHashMap<>();
+		for (JfxModule module : ModuleUtils.resolveAndCleanModules(modules)) {
+			Map<String, String> artifact = ModuleUtils.resolveVersionlessArtifact(module, classifier);
+			artifacts.put(String.join(":", artifact.get("group"), artifact.get("name"), releaseVersion,
+									  artifact.get("classifier")), artifact);
+		}
+		return artifacts;
+	}
+	
+	/**
+	 * Create (or reuse) the resolvable configuration of a build target
+	 *
+	 * @param target the build target
+	 * @return the configuration name
+	 */
+	private @NotNull String createTargetConfiguration(@NotNull JfxTarget target) {
+		String configurationName = target.configurationName();
+		Configuration configuration = project.getConfigurations().maybeCreate(configurationName);
+		configuration.setDescription(String.format("JavaFX modules of the %s target", target));
+		configuration.setCanBeConsumed(false);
+		configuration.setCanBeResolved(true);
+		// The module dependencies are declared explicitly, the transitive ones use the running platform
+		configuration.setTransitive(false);
+		
+		applyChangesOnResolution(configurationName);
+		return configurationName;
+	}
+	
+	/**
+	 * Returns the jars of the local JavaFX SDK as file dependencies. Gradle doesn't resolve
+	 * or download anything, the jars are used directly.
+	 *
+	 * @param modules    the required modules
+	 * @param classifier the target platform classifier
+	 * @return the dependency notations by jar path
+	 */
+	private @NotNull Map<String, Object> resolveSdkArtifacts(@NotNull List<JfxModule> modules,
+		@NotNull String classifier) {
+		JfxSdk localSdk = JfxSdk.load(sdk.getOrElseThrow("sdk"));
+		
+		// The SDK native libraries only work in its own platform
+		if (Obj.isNotNull(localSdk.classifier) && !localSdk.classifier.equals(classifier)) {
+			Msg.error(project, "JavaFX SDK %s is built for \"%s\" but the target platform is \"%s\"",
+					  localSdk.version, localSdk.classifier, classifier);
+		}
+		Msg.info(project, "Using JavaFX SDK %s (%s)", localSdk.version, localSdk.directory);
+		
+		// One dependency for each jar, so a module change only affects its own jar
+		Map<String, Object> artifacts = new LinkedHashMap<>();
+		for (File jar : localSdk.moduleJars(modules)) {
+			artifacts.put(jar.getAbsolutePath(), project.files(jar));
+		}
+		return artifacts;
+	}
+	
+	/**
+	 * Attach the missing dependencies to the configuration and remove the dependencies
+	 * attached before that are no longer required
+	 *
+	 * @param configurationName the configuration name
+	 * @param artifacts         the required dependency notations by artifact key
+	 */
+	private void updateContributedDependencies(@NotNull String configurationName,
+		@NotNull Map<String, Object> artifacts) {
+		Map<String, Dependency> contributed = contributedDependencies
+			.computeIfAbsent(configurationName, it -> new LinkedHashMap<>());
+		Configuration configuration = project.getConfigurations().findByName(configurationName);
 		
 		// Remove old dependencies
-		removeOldDependencies(oldConfiguration);
+		Iterator<Map.Entry<String, Dependency>> iterator = contributed.entrySet().iterator();
+		while (iterator.hasNext()) {
+			Map.Entry<String, Dependency> entry = iterator.next();
+			if (artifacts.containsKey(entry.getKey())) continue;
+			
+			if (Obj.isNotNull(configuration)) configuration.getDependencies().remove(entry.getValue());
+			iterator.remove();
+		}
+		
+		// Attach only the new dependencies
+		for (Map.Entry<String, Object> artifact : artifacts.entrySet()) {
+			if (contributed.containsKey(artifact.getKey())) continue;
+			contributed.put(artifact.getKey(), project.getDependencies().add(configurationName, artifact.getValue()));
+		}
+		if (contributed.isEmpty()) contributedDependencies.remove(configurationName);
+	}
+	
+	/**
+	 * Apply the pending changes and complete the version of the JavaFX dependencies before the
+	 * configuration participates in dependency resolution. The action is registered only once
+	 * for each configuration.
+	 *
+	 * @param configurationName the configuration name
+	 */
+	private void applyChangesOnResolution(@NotNull String configurationName) {
+		if (!hookedConfigurations.add(configurationName)) return;
 		
-		// Resolve dependencies
-		for (String item : moduleArtifacts) {
-			String artifactId = MavenResolver.getInstance()
-									.resolveDependency(item, silent) + ":" + artifactConfiguration.first;
+		project.getConfigurations()
+			.matching(it -> it.getName().equals(configurationName))
+			.all(it -> it.withDependencies(dependencies -> {
+				applyChanges();
+				completeVersions(dependencies);
+			}));
+	}
+	
+	/**
+	 * Set the resolved JavaFX version to all JavaFX dependencies without version
+	 *
+	 * @param dependencies the configuration dependencies
+	 */
+	private void completeVersions(@NotNull DependencySet dependencies) {
+		for (Dependency dependency : dependencies) {
+			if (!(dependency instanceof ExternalModuleDependency) || Obj.isNotNull(dependency.getVersion())) continue;
+			if (!ModuleUtils.checkJavaFxDependency(dependency)) continue;
+			
+			// The plugin dependencies have a single artifact with the platform classifier
+			ExternalModuleDependency moduleDependency = (ExternalModuleDependency) dependency;
+			String classifier = moduleDependency.getArtifacts().stream()
+				.map(DependencyArtifact::getClassifier)
+				.filter(Objects::nonNull)
+				.findFirst()
+				.orElse(null);
+			if (Obj.isNull(classifier)) continue;
 			
-			// Attach dependency
-			project.getDependencies()
-				.add(dependencyConfiguration.getOrElse(DEFAULT_DEPENDENCY_CONFIGURATION), artifactId);
-			project.getDependencies()
-				.add(DEFAULT_TEST_DEPENDENCY_CONFIGURATION, artifactId);
+			String resolved = resolveReleaseVersion(classifier);
+			moduleDependency.version(it -> it.require(resolved));
+		}
+	}
+	
+	/**
+	 * Resolve the JavaFX version of the current options for a platform. The version is resolved
+	 * only once until the options change.
+	 *
+	 * @param classifier the platform classifier
+	 * @return the real JavaFX version
+	 */
+	private synchronized @NotNull String resolveReleaseVersion(@NotNull String classifier) {
+		String resolved = releaseVersions.get(classifier);
+		if (Obj.isNotNull(resolved)) return resolved;
+		
+		List<JfxModule> moduleList = modules.getOrElseThrow("modules");
+		String releaseVersion = version.getOrElse(DEFAULT_VERSION);
+		// The versions of all targets are resolved at the same time
+		if (releaseVersions.isEmpty() && targets.isPresent()) {
+			Resolver<String, String> resolver = resolverService.get().getResolver(repositoryLocations());
+			targets.getOrElseThrow("targets").forEach(it -> resolver.prefetchDependency(
+				ModuleUtils.resolveReleaseArtifact(releaseVersion, moduleList, it.classifier())));
 		}
+		
+		resolved = resolveReleaseVersion(releaseVersion, moduleList, classifier, false);
+		releaseVersions.put(classifier, resolved);
+		return resolved;
 	}
 	
 	/**
-	 * Remove old project dependencies
+	 * Resolve the module artifacts of multiple platforms. The version of each platform
+	 * is resolved independently because not all platforms are published with all versions,
+	 * the platforms without a published version are skipped.
 	 *
-	 * @param configuration dependency configuration
+	 * @param classifiers the platform classifiers
+	 * @return all module artifacts with its platform classifier
 	 */
-	private void removeOldDependencies(@Nullable String configuration) {
-		// Resolve project configuration
-		String realConfiguration = Obj.isNull(configuration) ? DEFAULT_DEPENDENCY_CONFIGURATION :
-								   configuration;
-		Configuration container = project.getConfigurations()
-			.findByName(realConfiguration);
+	private @NotNull Set<String> resolvePlatformArtifacts(@NotNull Collection<String> classifiers) {
+		List<JfxModule> moduleList = modules.getOrElseThrow("modules");
+		String releaseVersion = version.getOrElse(DEFAULT_VERSION);
+		Resolver<String, String> resolver = resolverService.get().getResolver(repositoryLocations());
 		
-		// Ignore invalid configurations
-		if (Obj.isNull(container)) return;
+		// All versions are resolved at the same time
+		classifiers.forEach(it -> resolver.prefetchDependency(
+			ModuleUtils.resolveReleaseArtifact(releaseVersion, moduleList, it)));
 		
-		// Remove dependencies
-		container.getDependencies()
-			.removeIf(ModuleUtils::checkJavaFxDependency);
+		Set<String> artifacts = new LinkedHashSet<>();
+		for (String classifier : classifiers) {
+			try {
+				artifacts.addAll(resolvePlatformArtifacts(moduleList, classifier, true));
+			} catch (RuntimeException e) {
+				Msg.error(project, "JavaFX %s cannot be resolved for \"%s\", the platform is skipped (%s)",
+						  releaseVersion, classifier, e.getMessage());
+			}
+		}
+		return artifacts;
+	}
+	
+	/**
+	 * Resolve the module artifacts of a platform
+	 *
+	 * @param modules    the required modules
+	 * @param classifier the platform classifier
+	 * @param silent     don't show user information
+	 * @return the module artifacts with the platform classifier
+	 */
+	private @NotNull Set<String> resolvePlatformArtifacts(@NotNull List<JfxModule> modules, @NotNull String classifier,
+		boolean silent) {
+		String releaseVersion = resolveReleaseVersion(version.getOrElse(DEFAULT_VERSION), modules, classifier, silent);
+		return ModuleUtils.resolveArtifacts(releaseVersion, modules).stream()
+			.map(it -> it + ":" + classifier)
+			.collect(Collectors.toCollection(LinkedHashSet::new));
+	}
+	
+	/**
+	 * Resolve the version of the JavaFX release line. All JavaFX modules are released
+	 * with the same version, so the version of all modules is resolved only once and
+	 * it must be published for all of them with the platform classifier.
+	 *
+	 * @param version    the JavaFX version or special version configuration
+	 * @param modules    the required modules
+	 * @param classifier the platform classifier
+	 * @param silent     don't show user information
+	 * @return the real JavaFX version
+	 */
+	private @NotNull String resolveReleaseVersion(@NotNull String version, @NotNull List<JfxModule> modules,
+		@NotNull String classifier, boolean silent) {
+		String resolved = resolverService.get()
+			.getResolver(repositoryLocations())
+			.resolveDependency(ModuleUtils.resolveReleaseArtifact(version, modules, classifier), silent);
+		
+		// <group>:<artifacts>:<version>:<classifier>
+		return resolved.split(":")[2];
+	}
+	
+	/**
+	 * Returns the locations of all maven repositories declared in the project
+	 *
+	 * @return the repository locations
+	 */
+	private @NotNull List<URI> repositoryLocations() {
+		return project.getRepositories()
+			.withType(MavenArtifactRepository.class)
+			.stream()
+			.map(MavenArtifactRepository::getUrl)
+			.collect(Collectors.toList());
 	}
 	
 }
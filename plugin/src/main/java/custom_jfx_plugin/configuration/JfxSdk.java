@@ -0,0 +1,189 @@
+package custom_jfx_plugin.configuration;
+
+import custom_jfx_plugin.utils.ModuleUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ushiosan.jvm_utilities.lang.Obj;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+public final class JfxSdk {
+	
+	/* -----------------------------------------------------------------------
+	 * Properties
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * SDK file with the release information
+	 */
+	private static final String RELEASE_FILE = "release";
+	
+	/**
+	 * SDK directory with the module jars and the native libraries
+	 */
+	private static final String LIB_DIRECTORY = "lib";
+	
+	/**
+	 * Release property with the JavaFX version
+	 */
+	private static final String VERSION_PROPERTY = "JAVAFX_VERSION";
+	
+	/**
+	 * Release property with the SDK operating system
+	 */
+	private static final String OS_NAME_PROPERTY = "OS_NAME";
+	
+	/**
+	 * Release property with the SDK architecture
+	 */
+	private static final String OS_ARCH_PROPERTY = "OS_ARCH";
+	
+	/**
+	 * SDK directory
+	 */
+	public final File directory;
+	
+	/**
+	 * SDK JavaFX version
+	 */
+	public final String version;
+	
+	/**
+	 * SDK platform classifier (same values of the maven artifacts) or {@code null} if the SDK doesn't declare it
+	 */
+	public final String classifier;
+	
+	/* -----------------------------------------------------------------------
+	 * Constructors
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Default constructor
+	 *
+	 * @param directory  SDK directory
+	 * @param version    SDK JavaFX version
+	 * @param classifier SDK platform classifier
+	 */
+	private JfxSdk(@NotNull File directory, @NotNull String version, @Nullable String classifier) {
+		this.directory = directory;
+		this.version = version;
+		this.classifier = classifier;
+	}
+	
+	/* -----------------------------------------------------------------------
+	 * Methods
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Load the SDK information from its {@code release} file
+	 *
+	 * @param directory the SDK directory
+	 * @return the SDK information
+	 * @throws IllegalStateException error if the directory is not a valid JavaFX SDK
+	 */
+	public static @NotNull JfxSdk load(@NotNull File directory) {
+		File releaseFile = new File(directory, RELEASE_FILE);
+		if (!releaseFile.isFile() || !new File(directory, LIB_DIRECTORY).isDirectory()) {
+			throw new IllegalStateException(String.format(
+				"\"%s\" is not a JavaFX SDK directory (\"%s\" file and \"%s\" directory are required)", directory,
+				RELEASE_FILE, LIB_DIRECTORY));
+		}
+		
+		Properties release = new Properties();
+		try (Reader reader = Files.newBufferedReader(releaseFile.toPath(), StandardCharsets.UTF_8)) {
+			release.load(reader);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		
+		String version = releaseValue(release, VERSION_PROPERTY);
+		if (Obj.isNull(version)) {
+			throw new IllegalStateException(String.format("\"%s\" doesn't declare the %s property", releaseFile,
+														  VERSION_PROPERTY));
+		}
+		return new JfxSdk(directory, version, resolveClassifier(releaseValue(release, OS_NAME_PROPERTY),
+																  releaseValue(release, OS_ARCH_PROPERTY)));
+	}
+	
+	/**
+	 * Returns the jar of the module inside the SDK
+	 *
+	 * @param module the module to resolve
+	 * @return the module jar
+	 */
+	public @NotNull File moduleJar(@NotNull JfxModule module) {
+		return new File(new File(directory, LIB_DIRECTORY), ModuleUtils.resolveModuleJarName(module));
+	}
+	
+	/**
+	 * Returns the jars of the modules and its dependencies
+	 *
+	 * @param modules the required modules
+	 * @return the module jars
+	 * @throws IllegalStateException error if any module is not included in the SDK
+	 */
+	public @NotNull List<File> moduleJars(@NotNull Collection<JfxModule> modules) {
+		List<File> jars = ModuleUtils.resolveAndCleanModules(modules).stream()
+			.map(this::moduleJar)
+			.sorted()
+			.collect(Collectors.toList());
+		
+		for (File jar : jars) {
+			if (!jar.isFile()) {
+				throw new IllegalStateException(String.format("JavaFX SDK %s doesn't contain \"%s\"", version, jar));
+			}
+		}
+		return jars;
+	}
+	
+	/* -----------------------------------------------------------------------
+	 * Internal methods
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Returns a release property without quotes
+	 *
+	 * @param release the release content
+	 * @param key     the property name
+	 * @return the property value or {@code null} if the property not exists
+	 */
+	private static @Nullable String releaseValue(@NotNull Properties release, @NotNull String key) {
+		String value = release.getProperty(key);
+		if (Obj.isNull(value)) return null;
+		
+		value = value.trim();
+		if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+			value = value.substring(1, value.length() - 1);
+		}
+		return value.isEmpty() ? null : value;
+	}
+	
+	/**
+	 * Resolve the platform classifier of the SDK
+	 *
+	 * @param osName the SDK operating system
+	 * @param osArch the SDK architecture
+	 * @return the platform classifier or {@code null} if the SDK doesn't declare its operating system
+	 */
+	private static @Nullable String resolveClassifier(@Nullable String osName, @Nullable String osArch) {
+		if (Obj.isNull(osName)) return null;
+		
+		String name = osName.toLowerCase(Locale.ROOT);
+		String platform = name.startsWith("windows") ? "win" :
+						  name.contains("mac") || name.contains("darwin") ? "mac" : "linux";
+		boolean arm = Obj.isNotNull(osArch) && osArch.toLowerCase(Locale.ROOT).matches("aarch64|arm64");
+		
+		return arm ? platform + "-aarch64" : platform;
+	}
+	
+}
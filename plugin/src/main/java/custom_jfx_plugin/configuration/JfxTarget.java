@@ -0,0 +1,122 @@
+package custom_jfx_plugin.configuration;
+
+import custom_jfx_plugin.utils.ModuleUtils;
+import org.jetbrains.annotations.NotNull;
+import ushiosan.jvm_utilities.system.Arch;
+import ushiosan.jvm_utilities.system.Platform;
+
+import java.util.Locale;
+import java.util.Objects;
+
+public final class JfxTarget {
+	
+	/* -----------------------------------------------------------------------
+	 * Properties
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Prefix of the target configuration names
+	 */
+	private static final String CONFIGURATION_PREFIX = "customJfx";
+	
+	/**
+	 * Target platform
+	 */
+	public final Platform platform;
+	
+	/**
+	 * Target architecture
+	 */
+	public final Arch arch;
+	
+	/* -----------------------------------------------------------------------
+	 * Constructors
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Default constructor
+	 *
+	 * @param platform target platform
+	 * @param arch     target architecture
+	 */
+	private JfxTarget(@NotNull Platform platform, @NotNull Arch arch) {
+		this.platform = platform;
+		this.arch = arch;
+	}
+	
+	/* -----------------------------------------------------------------------
+	 * Methods
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Create a build target
+	 *
+	 * @param platform target platform
+	 * @param arch     target architecture
+	 * @return the target instance
+	 */
+	public static @NotNull JfxTarget of(@NotNull Platform platform, @NotNull Arch arch) {
+		return new JfxTarget(platform, arch);
+	}
+	
+	/**
+	 * Returns the platform classifier of the maven artifacts
+	 *
+	 * @return the platform classifier
+	 */
+	public @NotNull String classifier() {
+		return ModuleUtils.getPlatformArtifactConfig(platform, arch).first;
+	}
+	
+	/**
+	 * Returns the name of the target configuration. The name is generated from the classifier
+	 * ({@code mac-aarch64} is {@code customJfxMacAarch64}), so targets with the same artifacts
+	 * share the configuration.
+	 *
+	 * @return the configuration name
+	 */
+	public @NotNull String configurationName() {
+		StringBuilder builder = new StringBuilder(CONFIGURATION_PREFIX);
+		for (String part : classifier().split("-")) {
+			builder.append(part.substring(0, 1).toUpperCase(Locale.ROOT))
+				.append(part.substring(1));
+		}
+		return builder.toString();
+	}
+	
+	/**
+	 * Indicates whether some other object is "equal to" this one.
+	 *
+	 * @param o the reference object with which to compare.
+	 * @return {@code true} if this object is the same as the obj argument or {@code false} otherwise
+	 */
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (!(o instanceof JfxTarget)) return false;
+		
+		JfxTarget other = (JfxTarget) o;
+		return platform == other.platform && arch == other.arch;
+	}
+	
+	/**
+	 * Returns a hash code value for the object.
+	 *
+	 * @return a hash code value for this object.
+	 */
+	@Override
+	public int hashCode() {
+		return Objects.hash(platform, arch);
+	}
+	
+	/**
+	 * Returns a string representation of the object.
+	 *
+	 * @return a string representation of the object.
+	 */
+	@Override
+	public String toString() {
+		return String.format("%s (%s)", platform, arch);
+	}
+	
+}
@@ -0,0 +1,237 @@
+package custom_jfx_plugin.dependency;
+
+import custom_jfx_plugin.dependency.base.DependencyDiskCache;
+import custom_jfx_plugin.dependency.base.HttpOptions;
+import custom_jfx_plugin.dependency.base.Resolver;
+import custom_jfx_plugin.dependency.base.VersionIndex;
+import custom_jfx_plugin.dependency.maven.MavenResolver;
+import custom_jfx_plugin.dependency.metadata.MetadataResolver;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+import org.jetbrains.annotations.NotNull;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public abstract class JfxResolverService implements BuildService<JfxResolverService.Parameters>, AutoCloseable {
+	
+	/**
+	 * Shared service name
+	 */
+	public static final String SERVICE_NAME = "customJfxResolver";
+	
+	/* -----------------------------------------------------------------------
+	 * Properties
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Metadata directory relative to the persistent cache directory
+	 */
+	private static final String METADATA_DIRECTORY = "metadata";
+	
+	/**
+	 * Search resolver shared by all projects of the build
+	 */
+	private final MavenResolver resolver;
+	
+	/**
+	 * Metadata resolvers shared by all projects with the same repositories
+	 */
+	private final Map<List<URI>, MetadataResolver> metadataResolvers = new ConcurrentHashMap<>();
+	
+	/**
+	 * Persistent dependency cache shared between gradle daemons
+	 */
+	private final DependencyDiskCache diskCache;
+	
+	/**
+	 * Version index shared by all resolutions of the build
+	 */
+	private final VersionIndex versionIndex = new VersionIndex();
+	
+	/* -----------------------------------------------------------------------
+	 * Constructors
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Default constructor
+	 */
+	public JfxResolverService() {
+		Parameters parameters = getParameters();
+		diskCache = new DependencyDiskCache(
+			parameters.getCacheDirectory().get().getAsFile(),
+			parameters.getCacheTtl().get(),
+			parameters.getStaleWhileRevalidate().get());
+		
+		resolver = new MavenResolver(
+			versionIndex,
+			httpOptions(),
+			diskCache,
+			parameters.getModuleCacheDirectory().get().getAsFile(),
+			parameters.getOffline().get(),
+			parameters.getMaxCacheEntries().get(),
+			parameters.getSearchLocation().get());
+	}
+	
+	/* -----------------------------------------------------------------------
+	 * Methods
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Returns the dependency resolver of the configured backend
+	 *
+	 * @param repositories the project repositories
+	 * @return the dependency resolver
+	 */
+	public @NotNull Resolver<String, String> getResolver(@NotNull List<URI> repositories) {
+		if (getBackend() == ResolverBackend.SEARCH) return resolver;
+		
+		Parameters parameters = getParameters();
+		return metadataResolvers.computeIfAbsent(List.copyOf(repositories), it -> new MetadataResolver(
+			it,
+			parameters.getCacheDirectory().dir(METADATA_DIRECTORY).get().getAsFile(),
+			versionIndex,
+			httpOptions(),
+			diskCache,
+			parameters.getModuleCacheDirectory().get().getAsFile(),
+			parameters.getOffline().get(),
+			parameters.getMaxCacheEntries().get()));
+	}
+	
+	/**
+	 * Returns the configured resolver backend
+	 *
+	 * @return the resolver backend
+	 */
+	public @NotNull ResolverBackend getBackend() {
+		return getParameters().getBackend().get();
+	}
+	
+	/**
+	 * Release the resolver resources when the build finishes
+	 */
+	@Override
+	public void close() {
+		resolver.close();
+		metadataResolvers.values().forEach(Resolver::close);
+	}
+	
+	/* -----------------------------------------------------------------------
+	 * Internal methods
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Returns the http requests configuration
+	 *
+	 * @return http requests configuration
+	 */
+	private @NotNull HttpOptions httpOptions() {
+		Parameters parameters = getParameters();
+		return new HttpOptions(
+			parameters.getRequestTimeout().get(),
+			parameters.getMaxRetries().get(),
+			parameters.getHedgeDelay().getOrNull(),
+			parameters.getResolutionBudget().get());
+	}
+	
+	/* -----------------------------------------------------------------------
+	 * Internal types
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Resolver service parameters
+	 */
+	public interface Parameters extends BuildServiceParameters {
+		
+		/**
+		 * Persistent cache directory
+		 *
+		 * @return cache directory property
+		 */
+		DirectoryProperty getCacheDirectory();
+		
+		/**
+		 * Time that a resolved special version is valid
+		 *
+		 * @return cache time property
+		 */
+		Property<Duration> getCacheTtl();
+		
+		/**
+		 * Use expired resolutions while they are refreshed in background
+		 *
+		 * @return stale-while-revalidate property
+		 */
+		Property<Boolean> getStaleWhileRevalidate();
+		
+		/**
+		 * Gradle module cache directory
+		 *
+		 * @return module cache directory property
+		 */
+		DirectoryProperty getModuleCacheDirectory();
+		
+		/**
+		 * Offline mode
+		 *
+		 * @return offline mode property
+		 */
+		Property<Boolean> getOffline();
+		
+		/**
+		 * Max number of lookups kept in memory
+		 *
+		 * @return max lookups property
+		 */
+		Property<Integer> getMaxCacheEntries();
+		
+		/**
+		 * Resolver backend
+		 *
+		 * @return resolver backend property
+		 */
+		Property<ResolverBackend> getBackend();
+		
+		/**
+		 * Search service location used by the search backend
+		 *
+		 * @return search location property
+		 */
+		Property<URI> getSearchLocation();
+		
+		/**
+		 * Time to wait the response of each request
+		 *
+		 * @return request timeout property
+		 */
+		Property<Duration> getRequestTimeout();
+		
+		/**
+		 * Number of retries of each request
+		 *
+		 * @return max retries property
+		 */
+		Property<Integer> getMaxRetries();
+		
+		/**
+		 * Time to wait before send a hedged request (optional)
+		 *
+		 * @return hedge delay property
+		 */
+		Property<Duration> getHedgeDelay();
+		
+		/**
+		 * Max time of a whole resolution
+		 *
+		 * @return resolution budget property
+		 */
+		Property<Duration> getResolutionBudget();
+		
+	}
+	
+}
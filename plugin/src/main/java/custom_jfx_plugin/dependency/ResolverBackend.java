@@ -0,0 +1,37 @@
+package custom_jfx_plugin.dependency;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+public enum ResolverBackend {
+	/**
+	 * Versions are resolved with the Maven Central search service
+	 */
+	SEARCH,
+	/**
+	 * Versions are resolved with the {@code maven-metadata.xml} files of the project repositories
+	 */
+	METADATA;
+	
+	/* -----------------------------------------------------------------------
+	 * Methods
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Returns the backend with the given name
+	 *
+	 * @param name the backend name (case-insensitive)
+	 * @return the backend with the given name
+	 */
+	public static @NotNull ResolverBackend fromName(@NotNull String name) {
+		try {
+			return valueOf(name.trim().toUpperCase(Locale.ROOT));
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException(String.format("Invalid resolver backend \"%s\", valid values are: %s",
+															 name, Arrays.toString(values())), e);
+		}
+	}
+	
+}
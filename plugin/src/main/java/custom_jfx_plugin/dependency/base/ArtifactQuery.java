@@ -0,0 +1,113 @@
+package custom_jfx_plugin.dependency.base;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ushiosan.jvm_utilities.lang.Obj;
+
+import java.util.List;
+
+public final class ArtifactQuery {
+	
+	/* -----------------------------------------------------------------------
+	 * Properties
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Separator of the artifacts resolved together ({@code group:artifact1,artifact2:version})
+	 */
+	public static final String ARTIFACT_SEPARATOR = ",";
+	
+	/**
+	 * Artifacts group
+	 */
+	public final String group;
+	
+	/**
+	 * Artifacts resolved together, all of them must be published with the selected version
+	 */
+	public final List<String> artifacts;
+	
+	/**
+	 * Classifier that all artifacts must publish or {@code null} if any version is valid
+	 */
+	public final String classifier;
+	
+	/**
+	 * Special version configuration
+	 */
+	public final String special;
+	
+	/**
+	 * The version selector
+	 */
+	public final VersionIndex.Selector selector;
+	
+	/* -----------------------------------------------------------------------
+	 * Constructors
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Default constructor
+	 *
+	 * @param group      artifacts group
+	 * @param artifacts  artifacts resolved together
+	 * @param classifier classifier that all artifacts must publish or {@code null} to ignore it
+	 * @param special    special version configuration
+	 * @param selector   the version selector
+	 */
+	public ArtifactQuery(@NotNull String group, @NotNull List<String> artifacts, @Nullable String classifier,
+		@NotNull String special, @NotNull VersionIndex.Selector selector) {
+		if (artifacts.isEmpty()) throw new IllegalStateException("At least one artifact is required");
+		this.group = group;
+		this.artifacts = List.copyOf(artifacts);
+		this.classifier = classifier;
+		this.special = special;
+		this.selector = selector;
+	}
+	
+	/* -----------------------------------------------------------------------
+	 * Methods
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Returns the artifacts as a single configuration element
+	 *
+	 * @return the artifacts element
+	 */
+	public @NotNull String artifactElement() {
+		return String.join(ARTIFACT_SEPARATOR, artifacts);
+	}
+	
+	/**
+	 * Returns the file suffix of the classifier inside the published files ({@code -mac-aarch64.jar})
+	 *
+	 * @return the classifier file suffix or {@code null} if the query doesn't have classifier
+	 */
+	public @Nullable String classifierFile() {
+		return Obj.isNull(classifier) ? null : "-" + classifier + ".jar";
+	}
+	
+	/**
+	 * Generate the persistent cache key of the query. Queries without classifier use
+	 * the same key of a single artifact resolution.
+	 *
+	 * @param scope the resolver scope
+	 * @return the cache key
+	 */
+	public @NotNull String key(@NotNull String scope) {
+		String version = Obj.isNull(classifier) ? special : special + ":" + classifier;
+		return DependencyDiskCache.key(scope, group, artifactElement(), version);
+	}
+	
+	/**
+	 * Object string representation
+	 *
+	 * @return object string
+	 */
+	@Override
+	public String toString() {
+		String result = group + ":" + artifactElement();
+		return Obj.isNull(classifier) ? result : result + " (" + classifier + ")";
+	}
+	
+}
@@ -1,4 +1,4 @@
-package custom_jfx_plugin.dependency.maven;
+package custom_jfx_plugin.dependency.base;
 
 public final class DependencyCache {
 	
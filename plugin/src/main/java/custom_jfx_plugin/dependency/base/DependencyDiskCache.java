@@ -0,0 +1,398 @@
+package custom_jfx_plugin.dependency.base;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+public final class DependencyDiskCache {
+	
+	/* -----------------------------------------------------------------------
+	 * Properties
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Default time that a resolution is considered valid
+	 */
+	public static final Duration DEFAULT_TTL = Duration.ofHours(24);
+	
+	/**
+	 * Cache file name
+	 */
+	private static final String CACHE_FILE = "resolutions.properties";
+	
+	/**
+	 * Lock file name (shared between all gradle daemons)
+	 */
+	private static final String LOCK_FILE = "resolutions.lock";
+	
+	/**
+	 * Separator between resolved version and resolution timestamp
+	 */
+	private static final String VALUE_SEPARATOR = "|";
+	
+	/**
+	 * Key suffix of the stored "ETag" validator
+	 */
+	private static final String ETAG_SUFFIX = ".etag";
+	
+	/**
+	 * Key suffix of the stored "Last-Modified" validator
+	 */
+	private static final String LAST_MODIFIED_SUFFIX = ".lastModified";
+	
+	/**
+	 * File locks are held by the whole process, threads of the same daemon must be synchronized before
+	 */
+	private static final Object PROCESS_LOCK = new Object();
+	
+	/**
+	 * Cache directory
+	 */
+	private final Path directory;
+	
+	/**
+	 * Time that a resolution is considered valid
+	 */
+	private final Duration ttl;
+	
+	/**
+	 * Expired resolutions are used while they are refreshed in background
+	 */
+	private final boolean staleWhileRevalidate;
+	
+	/* -----------------------------------------------------------------------
+	 * Constructors
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Default constructor
+	 *
+	 * @param directory cache directory
+	 * @param ttl       time that a resolution is considered valid
+	 */
+	public DependencyDiskCache(@NotNull File directory, @NotNull Duration ttl) {
+		this(directory, ttl, false);
+	}
+	
+	/**
+	 * Constructor with the expired resolutions policy
+	 *
+	 * @param directory            cache directory
+	 * @param ttl                  time that a resolution is considered valid
+	 * @param staleWhileRevalidate {@code true} to use expired resolutions while they are refreshed in background
+	 */
+	public DependencyDiskCache(@NotNull File directory, @NotNull Duration ttl, boolean staleWhileRevalidate) {
+		this.directory = directory.toPath();
+		this.ttl = ttl;
+		this.staleWhileRevalidate = staleWhileRevalidate;
+	}
+	
+	/* -----------------------------------------------------------------------
+	 * Methods
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Generate the cache key of a special version
+	 *
+	 * @param scope    resolver scope, see {@link #scope(String, Collection)}
+	 * @param group    artifact group
+	 * @param artifact artifact id
+	 * @param special  special version configuration
+	 * @return the cache key
+	 */
+	public static @NotNull String key(@NotNull String scope, @NotNull String group, @NotNull String artifact,
+		@NotNull String special) {
+		return String.join(":", scope, group, artifact, special);
+	}
+	
+	/**
+	 * Generate the scope of the resolutions of a resolver. Each backend and each list of
+	 * locations resolve versions from different sources, so they never share resolutions.
+	 *
+	 * @param backend   resolver backend name
+	 * @param locations locations used by the resolver
+	 * @return the resolver scope
+	 */
+	public static @NotNull String scope(@NotNull String backend, @NotNull Collection<URI> locations) {
+		String content = locations.stream()
+			.map(URI::toString)
+			.collect(Collectors.joining("\n"));
+		return backend + "@" + hash(content);
+	}
+	
+	/**
+	 * Generate the hexadecimal SHA-1 hash of a text
+	 *
+	 * @param content the text to hash
+	 * @return the text hash
+	 */
+	public static @NotNull String hash(@NotNull String content) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-1")
+				.digest(content.getBytes(StandardCharsets.UTF_8));
+			StringBuilder builder = new StringBuilder();
+			for (byte item : digest) {
+				builder.append(String.format("%02x", item));
+			}
+			return builder.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	/**
+	 * Returns {@code true} if expired resolutions are used while they are refreshed in background
+	 *
+	 * @return the expired resolutions policy
+	 */
+	public boolean isStaleWhileRevalidate() {
+		return staleWhileRevalidate;
+	}
+	
+	/**
+	 * Find a resolution that has not expired
+	 *
+	 * @param key the cache key
+	 * @return the resolved version or {@link Optional#empty()} if the resolution not exists or is expired
+	 */
+	public @NotNull Optional<String> find(@NotNull String key) {
+		return find(key, false);
+	}
+	
+	/**
+	 * Find a resolution
+	 *
+	 * @param key       the cache key
+	 * @param ignoreTtl ignore the resolution expiration time
+	 * @return the resolved version or {@link Optional#empty()} if the resolution not exists or is expired
+	 */
+	public @NotNull Optional<String> find(@NotNull String key, boolean ignoreTtl) {
+		String value = withLock(true, () -> load().getProperty(key));
+		if (value == null) return Optional.empty();
+		
+		// Split the stored value
+		int index = value.lastIndexOf(VALUE_SEPARATOR);
+		if (index <= 0) return Optional.empty();
+		
+		long timestamp;
+		try {
+			timestamp = Long.parseLong(value.substring(index + 1));
+		} catch (NumberFormatException ignore) {
+			return Optional.empty();
+		}
+		
+		// Check expiration time
+		long age = System.currentTimeMillis() - timestamp;
+		if (!ignoreTtl && (age < 0 || age >= ttl.toMillis())) return Optional.empty();
+		
+		return Optional.of(value.substring(0, index));
+	}
+	
+	/**
+	 * Find a resolution with its http validators, ignoring the resolution expiration time
+	 *
+	 * @param key the cache key
+	 * @return the resolution or {@link Optional#empty()} if the resolution not exists
+	 */
+	public @NotNull Optional<Entry> findEntry(@NotNull String key) {
+		Properties properties = withLock(true, this::load);
+		String value = properties.getProperty(key);
+		if (value == null) return Optional.empty();
+		
+		int index = value.lastIndexOf(VALUE_SEPARATOR);
+		if (index <= 0) return Optional.empty();
+		
+		return Optional.of(new Entry(value.substring(0, index),
+									 properties.getProperty(key + ETAG_SUFFIX),
+									 properties.getProperty(key + LAST_MODIFIED_SUFFIX)));
+	}
+	
+	/**
+	 * Store a new resolution
+	 *
+	 * @param key     the cache key
+	 * @param version the resolved version
+	 */
+	public void store(@NotNull String key, @NotNull String version) {
+		store(key, new Entry(version, null, null));
+	}
+	
+	/**
+	 * Store a new resolution with its http validators
+	 *
+	 * @param key   the cache key
+	 * @param entry the resolution
+	 */
+	public void store(@NotNull String key, @NotNull Entry entry) {
+		withLock(false, () -> {
+			// Reload the content because other daemons can modify the file
+			Properties properties = load();
+			properties.setProperty(key, entry.version + VALUE_SEPARATOR + System.currentTimeMillis());
+			setOrRemove(properties, key + ETAG_SUFFIX, entry.etag);
+			setOrRemove(properties, key + LAST_MODIFIED_SUFFIX, entry.lastModified);
+			
+			// Write a temporal file and replace the original file
+			Path temporal = Files.createTempFile(directory, CACHE_FILE, ".tmp");
+			try (Writer writer = Files.newBufferedWriter(temporal, StandardCharsets.UTF_8)) {
+				properties.store(writer, "custom-jfx-plugin resolutions");
+			}
+			Files.move(temporal, directory.resolve(CACHE_FILE), StandardCopyOption.REPLACE_EXISTING,
+					   StandardCopyOption.ATOMIC_MOVE);
+			return null;
+		});
+	}
+	
+	/* -----------------------------------------------------------------------
+	 * Internal methods
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Load all cache content
+	 *
+	 * @return the cache content
+	 * @throws IOException error if the file cannot be read
+	 */
+	private @NotNull Properties load() throws IOException {
+		Properties properties = new Properties();
+		Path file = directory.resolve(CACHE_FILE);
+		if (!Files.isRegularFile(file)) return properties;
+		
+		try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			properties.load(reader);
+		}
+		return properties;
+	}
+	
+	/**
+	 * Update the property value or remove it if the value is {@code null}
+	 *
+	 * @param properties the cache content
+	 * @param key        the property key
+	 * @param value      the property value
+	 */
+	private static void setOrRemove(@NotNull Properties properties, @NotNull String key, @Nullable String value) {
+		if (value == null) {
+			properties.remove(key);
+		} else {
+			properties.setProperty(key, value);
+		}
+	}
+	
+	/**
+	 * Execute an action locked against other threads and other gradle daemons
+	 *
+	 * @param shared {@code true} to use a read lock or {@code false} to use a write lock
+	 * @param action the action to execute
+	 * @param <T>    action result type
+	 * @return the action result
+	 */
+	private <T> @Nullable T withLock(boolean shared, @NotNull CacheAction<T> action) {
+		synchronized (PROCESS_LOCK) {
+			return withFileLock(shared, action);
+		}
+	}
+	
+	/**
+	 * Execute an action with the cache file lock
+	 *
+	 * @param shared {@code true} to use a read lock or {@code false} to use a write lock
+	 * @param action the action to execute
+	 * @param <T>    action result type
+	 * @return the action result
+	 */
+	private <T> @Nullable T withFileLock(boolean shared, @NotNull CacheAction<T> action) {
+		try {
+			Files.createDirectories(directory);
+			try (FileChannel channel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE,
+														StandardOpenOption.READ, StandardOpenOption.WRITE);
+				 FileLock ignore = channel.lock(0, Long.MAX_VALUE, shared)) {
+				return action.run();
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	/**
+	 * Stored resolution with the http validators of the response used to resolve it
+	 */
+	public static final class Entry {
+		
+		/**
+		 * The resolved version
+		 */
+		public final String version;
+		
+		/**
+		 * Response "ETag" header or {@code null} if the response doesn't have it
+		 */
+		public final String etag;
+		
+		/**
+		 * Response "Last-Modified" header or {@code null} if the response doesn't have it
+		 */
+		public final String lastModified;
+		
+		/**
+		 * Default constructor
+		 *
+		 * @param version      the resolved version
+		 * @param etag         response "ETag" header
+		 * @param lastModified response "Last-Modified" header
+		 */
+		public Entry(@NotNull String version, @Nullable String etag, @Nullable String lastModified) {
+			this.version = version;
+			this.etag = etag;
+			this.lastModified = lastModified;
+		}
+		
+		/**
+		 * Returns {@code true} if the resolution can be revalidated with a conditional request
+		 *
+		 * @return the validators state
+		 */
+		public boolean hasValidators() {
+			return etag != null || lastModified != null;
+		}
+		
+	}
+	
+	/**
+	 * Action executed while the cache is locked
+	 *
+	 * @param <T> action result type
+	 */
+	@FunctionalInterface
+	private interface CacheAction<T> {
+		
+		/**
+		 * Execute the action
+		 *
+		 * @return the action result
+		 * @throws IOException error if the cache cannot be accessed
+		 */
+		T run() throws IOException;
+		
+	}
+	
+}
@@ -0,0 +1,75 @@
+package custom_jfx_plugin.dependency.base;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+
+public final class HttpOptions {
+	
+	/* -----------------------------------------------------------------------
+	 * Properties
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Default time to wait the response of each request
+	 */
+	public static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofSeconds(10);
+	
+	/**
+	 * Default number of retries of each request
+	 */
+	public static final int DEFAULT_MAX_RETRIES = 2;
+	
+	/**
+	 * Default max time of a whole resolution (all requests, retries and pages)
+	 */
+	public static final Duration DEFAULT_BUDGET = Duration.ofSeconds(30);
+	
+	/**
+	 * Default options (hedged requests are disabled)
+	 */
+	public static final HttpOptions DEFAULT =
+		new HttpOptions(DEFAULT_REQUEST_TIMEOUT, DEFAULT_MAX_RETRIES, null, DEFAULT_BUDGET);
+	
+	/**
+	 * Time to wait the response headers of each request
+	 */
+	public final Duration requestTimeout;
+	
+	/**
+	 * Number of retries when the request fails with a retryable error
+	 */
+	public final int maxRetries;
+	
+	/**
+	 * Time to wait before send a second (hedged) request or {@code null} to disable hedged requests
+	 */
+	public final Duration hedgeDelay;
+	
+	/**
+	 * Max time of a whole resolution
+	 */
+	public final Duration budget;
+	
+	/* -----------------------------------------------------------------------
+	 * Constructors
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Default constructor
+	 *
+	 * @param requestTimeout time to wait the response headers of each request
+	 * @param maxRetries     number of retries when the request fails with a retryable error
+	 * @param hedgeDelay     time to wait before send a hedged request or {@code null} to disable it
+	 * @param budget         max time of a whole resolution
+	 */
+	public HttpOptions(@NotNull Duration requestTimeout, int maxRetries, @Nullable Duration hedgeDelay,
+		@NotNull Duration budget) {
+		this.requestTimeout = requestTimeout;
+		this.maxRetries = Math.max(0, maxRetries);
+		this.hedgeDelay = hedgeDelay;
+		this.budget = budget;
+	}
+	
+}
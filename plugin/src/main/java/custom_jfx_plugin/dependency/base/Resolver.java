@@ -1,30 +1,50 @@
 package custom_jfx_plugin.dependency.base;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ushiosan.jvm_utilities.lang.Obj;
 import ushiosan.jvm_utilities.lang.collection.Collections;
 import ushiosan.jvm_utilities.lang.collection.elements.Pair;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ConnectException;
+import java.net.URI;
 import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
 import java.time.Duration;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
-public abstract class Resolver<T, V> {
+public abstract class Resolver<T, V> implements AutoCloseable {
 	
 	/* -----------------------------------------------------------------------
 	 * Properties
 	 * -----------------------------------------------------------------------*/
 	
 	/**
-	 * Max response results
+	 * Http user agent
 	 */
-	protected static final int MAX_RESULTS = 50;
+	protected static final String HTTP_USER_AGENT = "Java/HttpClient";
 	
 	/**
-	 * Http user agent
+	 * Http response code of a conditional request when the content was not modified
 	 */
-	protected static final String HTTP_USER_AGENT = "Java/HttpClient";
+	protected static final int HTTP_NOT_MODIFIED = 304;
 	
 	/**
 	 * Invalid http response codes
@@ -45,24 +65,53 @@ public abstract class Resolver<T, V> {
 		Pair.of(500, "Internal server error"),
 		Pair.of(501, "Not implemented"),
 		Pair.of(502, "Bad gateway"),
-		Pair.of(503, "Service Unavailable")
+		Pair.of(503, "Service Unavailable"),
+		Pair.of(504, "Gateway timeout")
 	);
 	
 	/**
-	 * Resolver http client
+	 * Http response codes that can be retried
+	 */
+	private static final Set<Integer> HTTP_RETRYABLE_CODES = Set.of(408, 429, 500, 502, 503, 504);
+	
+	/**
+	 * First retry max delay (milliseconds), the delay is doubled on each retry
+	 */
+	private static final long RETRY_BASE_DELAY = 200;
+	
+	/**
+	 * Max delay between retries (milliseconds)
 	 */
-	protected final HttpClient httpClient = HttpClient.newBuilder()
-		.version(HttpClient.Version.HTTP_2)
-		.connectTimeout(Duration.ofSeconds(5))
-		.build();
+	private static final long RETRY_MAX_DELAY = 5_000;
 	
 	/**
-	 * Json serialization instance
+	 * Http client threads, created with the first request. The threads are released when the resolver is closed.
 	 */
-	protected final Gson serializer = (new GsonBuilder())
-		.serializeNulls()
-		.setPrettyPrinting()
-		.create();
+	private ExecutorService httpExecutor;
+	
+	/**
+	 * Resolver http client, created with the first request. A single client is shared by all requests,
+	 * so connections are reused.
+	 */
+	private HttpClient httpClient;
+	
+	/**
+	 * Http requests configuration
+	 */
+	protected final HttpOptions httpOptions;
+	
+	/* -----------------------------------------------------------------------
+	 * Constructors
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Default constructor
+	 *
+	 * @param httpOptions http requests configuration
+	 */
+	protected Resolver(@NotNull HttpOptions httpOptions) {
+		this.httpOptions = httpOptions;
+	}
 	
 	/* -----------------------------------------------------------------------
 	 * Methods
@@ -77,4 +126,207 @@ public abstract class Resolver<T, V> {
 	 */
 	public abstract @NotNull T resolveDependency(@NotNull V configuration, boolean silent);
 	
+	/**
+	 * Start resolving the dependency configuration in background. The result is
+	 * used by the next {@link #resolveDependency(Object, boolean)} call.
+	 *
+	 * @param configuration configuration content
+	 */
+	public void prefetchDependency(@NotNull V configuration) {
+		// By default, dependencies are resolved only when required
+	}
+	
+	/**
+	 * Release all resolver resources
+	 */
+	@Override
+	public synchronized void close() {
+		if (Obj.isNotNull(httpExecutor)) httpExecutor.shutdownNow();
+	}
+	
+	/* -----------------------------------------------------------------------
+	 * Internal methods
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Returns the resolver http client. The client (and its threads) is created only
+	 * when the first request is sent.
+	 *
+	 * @return the http client
+	 */
+	protected final synchronized @NotNull HttpClient httpClient() {
+		if (Obj.isNull(httpClient)) {
+			httpExecutor = Executors.newCachedThreadPool(runnable -> {
+				Thread thread = new Thread(runnable, "custom-jfx-plugin-http");
+				thread.setDaemon(true);
+				return thread;
+			});
+			httpClient = HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_2)
+				.connectTimeout(Duration.ofSeconds(5))
+				.executor(httpExecutor)
+				.build();
+		}
+		return httpClient;
+	}
+	
+	/**
+	 * Returns the http client threads. Blocking work of the resolver (like local files reads)
+	 * uses the same threads, so it is released when the resolver is closed.
+	 *
+	 * @return the http client executor
+	 */
+	protected final synchronized @NotNull Executor httpExecutor() {
+		httpClient();
+		return httpExecutor;
+	}
+	
+	/**
+	 * Create a GET request with the resolver configuration
+	 *
+	 * @param uri the request location
+	 * @return the request builder
+	 */
+	protected @NotNull HttpRequest.Builder newRequest(@NotNull URI uri) {
+		return HttpRequest.newBuilder()
+			.uri(uri)
+			.setHeader("User-Agent", HTTP_USER_AGENT)
+			.timeout(httpOptions.requestTimeout)
+			.GET();
+	}
+	
+	/**
+	 * Send the request without blocking the caller. Timeouts and retryable responses are retried
+	 * with a jittered exponential backoff while the latency budget allows it, and a second (hedged)
+	 * request is sent when the first one is slow.
+	 *
+	 * @param request the request to send
+	 * @return the request response
+	 */
+	protected @NotNull CompletableFuture<HttpResponse<InputStream>> sendAsync(@NotNull HttpRequest request) {
+		long deadline = System.nanoTime() + httpOptions.budget.toNanos();
+		return sendAsync(request, 0, deadline);
+	}
+	
+	/**
+	 * Send the request and retry it if is required
+	 *
+	 * @param request  the request to send
+	 * @param attempt  the number of previous attempts
+	 * @param deadline the time ({@link System#nanoTime()}) when no more retries are allowed
+	 * @return the request response
+	 */
+	private @NotNull CompletableFuture<HttpResponse<InputStream>> sendAsync(@NotNull HttpRequest request, int attempt,
+		long deadline) {
+		return sendHedged(request)
+			.handle((response, error) -> {
+				boolean retryable = Obj.isNull(error) ?
+									HTTP_RETRYABLE_CODES.contains(response.statusCode()) :
+									isRetryable(error);
+				long delay = retryDelay(attempt, response);
+				
+				// The last response is returned when retries are not possible
+				if (!retryable || attempt >= httpOptions.maxRetries || System.nanoTime() + delay >= deadline) {
+					return Obj.isNull(error) ?
+						   CompletableFuture.completedFuture(response) :
+						   CompletableFuture.<HttpResponse<InputStream>>failedFuture(error);
+				}
+				if (Obj.isNotNull(response)) discard(response);
+				
+				Executor delayed = CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS, httpExecutor());
+				return CompletableFuture.runAsync(() -> {}, delayed)
+					.thenCompose(ignore -> sendAsync(request, attempt + 1, deadline));
+			})
+			.thenCompose(Function.identity());
+	}
+	
+	/**
+	 * Send the request and, if the response takes more than the hedge delay, send the same request
+	 * again. The first response is used and the other one is discarded.
+	 *
+	 * @param request the request to send
+	 * @return the first response
+	 */
+	private @NotNull CompletableFuture<HttpResponse<InputStream>> sendHedged(@NotNull HttpRequest request) {
+		CompletableFuture<HttpResponse<InputStream>> primary =
+			httpClient().sendAsync(request, HttpResponse.BodyHandlers.ofInputStream());
+		if (Obj.isNull(httpOptions.hedgeDelay)) return primary;
+		
+		CompletableFuture<HttpResponse<InputStream>> result = new CompletableFuture<>();
+		AtomicInteger pending = new AtomicInteger(2);
+		AtomicReference<Throwable> firstError = new AtomicReference<>();
+		BiConsumer<HttpResponse<InputStream>, Throwable> complete = (response, error) -> {
+			if (Obj.isNull(error)) {
+				if (!result.complete(response)) discard(response);
+				return;
+			}
+			// Fails only when both requests fail
+			firstError.compareAndSet(null, error);
+			if (pending.decrementAndGet() == 0) result.completeExceptionally(firstError.get());
+		};
+		primary.whenComplete(complete);
+		
+		Executor delayed = CompletableFuture.delayedExecutor(httpOptions.hedgeDelay.toMillis(), TimeUnit.MILLISECONDS,
+															 httpExecutor());
+		delayed.execute(() -> {
+			if (primary.isDone()) {
+				// The hedged request is not required
+				if (pending.decrementAndGet() == 0) result.completeExceptionally(firstError.get());
+				return;
+			}
+			httpClient().sendAsync(request, HttpResponse.BodyHandlers.ofInputStream()).whenComplete(complete);
+		});
+		return result;
+	}
+	
+	/**
+	 * Check if the request error can be retried. Connection errors are not retried
+	 * because the network is not available.
+	 *
+	 * @param error the request error
+	 * @return {@code true} if the request can be retried
+	 */
+	private static boolean isRetryable(@NotNull Throwable error) {
+		Throwable cause = error instanceof CompletionException && Obj.isNotNull(error.getCause()) ?
+						  error.getCause() : error;
+		return cause instanceof HttpTimeoutException ||
+			   (cause instanceof IOException && !(cause instanceof ConnectException));
+	}
+	
+	/**
+	 * Returns the time to wait before the next attempt. The server "Retry-After" header
+	 * (in seconds) is used if exists.
+	 *
+	 * @param attempt  the number of previous attempts
+	 * @param response the last response or {@code null} if the request failed
+	 * @return the delay in nanoseconds
+	 */
+	private static long retryDelay(int attempt, @Nullable HttpResponse<InputStream> response) {
+		long maxDelay = Math.min(RETRY_MAX_DELAY, RETRY_BASE_DELAY << Math.min(attempt, 16));
+		long delay = ThreadLocalRandom.current().nextLong(maxDelay + 1);
+		
+		if (Obj.isNotNull(response)) {
+			Optional<String> retryAfter = response.headers().firstValue("Retry-After");
+			try {
+				if (retryAfter.isPresent()) delay = Math.max(delay, Long.parseLong(retryAfter.get().trim()) * 1_000);
+			} catch (NumberFormatException ignore) {
+				// Http dates are not supported
+			}
+		}
+		return TimeUnit.MILLISECONDS.toNanos(delay);
+	}
+	
+	/**
+	 * Release the response content without reading it
+	 *
+	 * @param response the response to discard
+	 */
+	private static void discard(@NotNull HttpResponse<InputStream> response) {
+		try {
+			response.body().close();
+		} catch (IOException ignore) {
+			// The response is not used
+		}
+	}
+	
 }
@@ -0,0 +1,467 @@
+package custom_jfx_plugin.dependency.base;
+
+import custom_jfx_plugin.utils.Msg;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ushiosan.jvm_utilities.lang.Obj;
+
+import java.io.File;
+import java.net.ConnectException;
+import java.net.http.HttpTimeoutException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+public abstract class SpecialVersionResolver extends Resolver<String, String> {
+	
+	/* -----------------------------------------------------------------------
+	 * Properties
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Default max number of lookups kept in memory
+	 */
+	public static final int DEFAULT_MAX_CACHE_ENTRIES = 256;
+	
+	/**
+	 * Regular expression used to check if artifact special notation is valid
+	 */
+	private static final Pattern CONFIGURATION_CHECKER =
+		Pattern.compile("#(.+)#");
+	
+	/**
+	 * Dependency cache container. Each configuration is mapped to a single lookup, concurrent
+	 * callers of the same configuration wait for the lookup in progress.
+	 */
+	private final LookupCache dependencyCache;
+	
+	/**
+	 * Configurations already reported to the user
+	 */
+	private final Set<String> reportedConfigurations = ConcurrentHashMap.newKeySet();
+	
+	/**
+	 * Version index shared by all resolutions of the build
+	 */
+	protected final VersionIndex versionIndex;
+	
+	/**
+	 * Persistent dependency cache shared between gradle daemons
+	 */
+	private final DependencyDiskCache diskCache;
+	
+	/**
+	 * Gradle module cache directory ({@code caches/modules-2/files-2.1})
+	 */
+	private final File moduleCacheDirectory;
+	
+	/**
+	 * Offline mode, only local information is used to resolve dependencies
+	 */
+	private final boolean offline;
+	
+	/**
+	 * Background refreshes of expired resolutions. Each resolution is refreshed only once per build.
+	 */
+	private final Map<String, CompletableFuture<Void>> backgroundRefreshes = new ConcurrentHashMap<>();
+	
+	/* -----------------------------------------------------------------------
+	 * Constructors
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Default constructor
+	 *
+	 * @param versionIndex         the version index shared by all resolutions
+	 * @param httpOptions          http requests configuration
+	 * @param diskCache            the persistent cache or {@code null} to disable it
+	 * @param moduleCacheDirectory the gradle module cache directory or {@code null} to disable it
+	 * @param offline              {@code true} to resolve dependencies only with local information
+	 * @param maxCacheEntries      max number of lookups kept in memory
+	 */
+	protected SpecialVersionResolver(@NotNull VersionIndex versionIndex, @NotNull HttpOptions httpOptions,
+		@Nullable DependencyDiskCache diskCache, @Nullable File moduleCacheDirectory, boolean offline, int maxCacheEntries) {
+		super(httpOptions);
+		this.versionIndex = versionIndex;
+		this.diskCache = diskCache;
+		this.moduleCacheDirectory = moduleCacheDirectory;
+		this.offline = offline;
+		this.dependencyCache = new LookupCache(maxCacheEntries);
+	}
+	
+	/* -----------------------------------------------------------------------
+	 * Methods
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Resolve dependency configuration
+	 *
+	 * @param configuration configuration content
+	 * @param silent        don't show user information
+	 * @return dependency result
+	 */
+	@Override
+	public @NotNull String resolveDependency(@NotNull String configuration, boolean silent) {
+		CompletableFuture<DependencyCache> lookup = lookupDependency(configuration);
+		if (Obj.isNull(lookup)) return configuration;
+		
+		// Wait the lookup in progress (or returns the cached result)
+		DependencyCache result = awaitLookup(lookup);
+		if (!silent && reportedConfigurations.add(configuration)) {
+			Msg.info("Resolved dependency (%s) %s", result.special, result.resolved);
+		}
+		return result.resolved;
+	}
+	
+	/**
+	 * Start resolving the dependency configuration in background
+	 *
+	 * @param configuration configuration content
+	 */
+	@Override
+	public void prefetchDependency(@NotNull String configuration) {
+		lookupDependency(configuration);
+	}
+	
+	/**
+	 * Returns the scope of the persistent resolutions. Resolvers with different backends or
+	 * locations never share its resolutions.
+	 *
+	 * @return the resolver scope
+	 */
+	public abstract @NotNull String cacheScope();
+	
+	/**
+	 * Wait the background refreshes (limited by the resolution budget) and release all resolver resources
+	 */
+	@Override
+	public void close() {
+		try {
+			CompletableFuture.allOf(backgroundRefreshes.values().toArray(CompletableFuture[]::new))
+				.get(httpOptions.budget.toMillis(), TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException | TimeoutException ignore) {
+			// The next build tries again
+		} finally {
+			super.close();
+		}
+	}
+	
+	/* -----------------------------------------------------------------------
+	 * Internal methods
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Resolve the latest artifact version from the remote source. The previous resolution can be
+	 * used to revalidate the remote content instead of downloading it again.
+	 *
+	 * @param query    the artifacts to resolve
+	 * @param previous the previous (expired) resolution or {@code null} if not exists
+	 * @return the latest artifact result
+	 */
+	protected abstract @NotNull CompletableFuture<DependencyDiskCache.Entry> fetchArtifact(@NotNull ArtifactQuery query,
+		@Nullable DependencyDiskCache.Entry previous);
+	
+	/**
+	 * Wait the result of a lookup in progress
+	 *
+	 * @param lookup the lookup to wait
+	 * @return the lookup result
+	 */
+	private static @NotNull DependencyCache awaitLookup(@NotNull CompletableFuture<DependencyCache> lookup) {
+		try {
+			return lookup.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+			throw e;
+		}
+	}
+	
+	/**
+	 * Returns the lookup of the dependency configuration. The lookup is started
+	 * only if no other lookup of the same configuration exists.
+	 *
+	 * @param configuration configuration content
+	 * @return the dependency lookup or {@code null} if configuration doesn't have a special version
+	 */
+	private @Nullable CompletableFuture<DependencyCache> lookupDependency(@NotNull String configuration) {
+		// Split configuration in multiples elements
+		String[] elements = configuration.split(":");
+		if (elements.length < 3 || elements.length > 4) return null;
+		
+		// Validate if configuration contains special configuration
+		Matcher matcher = CONFIGURATION_CHECKER.matcher(configuration);
+		if (!matcher.find()) return null;
+		
+		// Store special configuration
+		String specialConfig = matcher.group(1);
+		CompletableFuture<DependencyCache> lookup = new CompletableFuture<>();
+		CompletableFuture<DependencyCache> cacheFound;
+		synchronized (dependencyCache) {
+			cacheFound = dependencyCache.putIfAbsent(configuration, lookup);
+		}
+		
+		// Returns the cached result (or the lookup in progress) if exists
+		if (Obj.isNotNull(cacheFound)) return cacheFound;
+		
+		resolveSpecialVersion(configuration, elements, specialConfig)
+			// Generate real valid artifact configuration
+			.thenApply(it -> new DependencyCache(configuration, configuration.substring(0, matcher.start()) + it +
+																configuration.substring(matcher.end()), specialConfig))
+			.whenComplete((result, error) -> {
+				if (Obj.isNull(error)) {
+					lookup.complete(result);
+					return;
+				}
+				// Failed lookups are not cached, the next caller tries again
+				synchronized (dependencyCache) {
+					dependencyCache.remove(configuration, lookup);
+				}
+				lookup.completeExceptionally(error);
+			});
+		return lookup;
+	}
+	
+	/**
+	 * Resolve the special version of the configuration from the persistent cache, the local information or the network
+	 *
+	 * @param configuration configuration content
+	 * @param elements      configuration elements
+	 * @param specialConfig special version configuration
+	 * @return the resolved version
+	 */
+	private @NotNull CompletableFuture<String> resolveSpecialVersion(@NotNull String configuration,
+		String @NotNull [] elements, @NotNull String specialConfig) {
+		try {
+			// The artifacts element can contain multiple artifacts resolved together
+			ArtifactQuery query = new ArtifactQuery(elements[0],
+													List.of(elements[1].split(ArtifactQuery.ARTIFACT_SEPARATOR)),
+													elements.length == 4 ? elements[3] : null, specialConfig,
+													versionIndex.selector(specialConfig));
+			
+			// Check the persistent cache before make any http request
+			Optional<String> diskFound = Obj.isNull(diskCache) ? Optional.empty() : diskCache.find(query.key(cacheScope()));
+			
+			// Http artifact request
+			if (diskFound.isPresent()) return CompletableFuture.completedFuture(diskFound.get());
+			if (offline) {
+				// Never touch the network in offline mode
+				return CompletableFuture.completedFuture(
+					resolveLocalArtifact(query)
+						.orElseThrow(() -> new IllegalStateException(String.format(
+							"Cannot resolve \"%s\" in offline mode: no previous resolution or cached \"%s\" " +
+							"version was found. Run the build once without --offline or use a static JavaFX version.",
+							configuration, query))));
+			}
+			// Use the expired resolution and refresh it for the next builds
+			if (Obj.isNotNull(diskCache) && diskCache.isStaleWhileRevalidate()) {
+				Optional<String> stale = diskCache.find(query.key(cacheScope()), true);
+				if (stale.isPresent()) {
+					refreshInBackground(query, stale.get());
+					return CompletableFuture.completedFuture(stale.get());
+				}
+			}
+			return resolveRemoteArtifact(query);
+		} catch (RuntimeException e) {
+			return CompletableFuture.failedFuture(e);
+		}
+	}
+	
+	/**
+	 * Resolve artifact from the network. If the network is not available, the local information is used instead.
+	 * Other errors (like invalid responses) are always reported.
+	 *
+	 * @param query the artifacts to resolve
+	 * @return the latest artifact result
+	 */
+	private @NotNull CompletableFuture<String> resolveRemoteArtifact(@NotNull ArtifactQuery query) {
+		return fetchAndStoreArtifact(query)
+			.handle((resolved, error) -> {
+				if (Obj.isNull(error)) return resolved;
+				Throwable cause = unwrapError(error);
+				
+				// Use the local information only when the network is not available
+				Optional<String> local = isNetworkError(cause) ? resolveLocalArtifact(query) : Optional.empty();
+				if (local.isEmpty()) {
+					throw cause instanceof RuntimeException ? (RuntimeException) cause : new RuntimeException(cause);
+				}
+				
+				Msg.error("Network is not available (%s), using local version %s:%s", cause, query, local.get());
+				return local.get();
+			});
+	}
+	
+	/**
+	 * Refresh an expired resolution without blocking the build. The new resolution is used by the next builds.
+	 *
+	 * @param query the artifacts to resolve
+	 * @param stale the expired resolution used by this build
+	 */
+	private void refreshInBackground(@NotNull ArtifactQuery query, @NotNull String stale) {
+		backgroundRefreshes.computeIfAbsent(
+			query.key(cacheScope()),
+			key -> fetchAndStoreArtifact(query)
+				.handle((resolved, error) -> {
+					// Failed refreshes are tried again by the next build
+					if (Obj.isNull(error) && !resolved.equals(stale)) {
+						Msg.info("New version found (%s) %s:%s, it will be used by the next build", query.special,
+								 query, resolved);
+					}
+					return null;
+				}));
+	}
+	
+	/**
+	 * Resolve artifact from the network and store the result in the persistent cache
+	 *
+	 * @param query the artifacts to resolve
+	 * @return the latest artifact result
+	 */
+	private @NotNull CompletableFuture<String> fetchAndStoreArtifact(@NotNull ArtifactQuery query) {
+		String diskKey = query.key(cacheScope());
+		DependencyDiskCache.Entry previous = Obj.isNull(diskCache) ? null : diskCache.findEntry(diskKey).orElse(null);
+		
+		return fetchArtifact(query, previous)
+			// Hard limit of the resolution time
+			.orTimeout(httpOptions.budget.toMillis(), TimeUnit.MILLISECONDS)
+			.thenApply(resolved -> {
+				// Store the result for other daemons and builds
+				if (Obj.isNotNull(diskCache)) diskCache.store(diskKey, resolved);
+				return resolved.version;
+			});
+	}
+	
+	/**
+	 * Returns the real cause of an asynchronous error
+	 *
+	 * @param error the asynchronous error
+	 * @return the error cause
+	 */
+	private @NotNull Throwable unwrapError(@NotNull Throwable error) {
+		Throwable cause = error instanceof CompletionException && Obj.isNotNull(error.getCause()) ?
+						  error.getCause() : error;
+		if (cause instanceof TimeoutException) {
+			return new TimeoutException("Resolution exceeded the latency budget of " + httpOptions.budget);
+		}
+		return cause;
+	}
+	
+	/**
+	 * Check if the error was caused by an unreachable or slow network
+	 *
+	 * @param error the resolution error
+	 * @return {@code true} if the network is not available or {@code false} otherwise
+	 */
+	private static boolean isNetworkError(@NotNull Throwable error) {
+		for (Throwable it = error; Obj.isNotNull(it); it = it.getCause()) {
+			if (it instanceof ConnectException || it instanceof HttpTimeoutException ||
+				it instanceof TimeoutException) return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * Resolve artifact only with local information: previous resolutions (ignoring its expiration time)
+	 * and versions already downloaded in the gradle module cache. When multiple artifacts are resolved
+	 * together, only the versions downloaded for all of them (with the query classifier) are valid.
+	 *
+	 * @param query the artifacts to resolve
+	 * @return the latest local artifact or {@link Optional#empty()} if no local information exists
+	 */
+	private @NotNull Optional<String> resolveLocalArtifact(@NotNull ArtifactQuery query) {
+		// Previous resolutions
+		if (Obj.isNotNull(diskCache)) {
+			Optional<String> previous = diskCache.find(query.key(cacheScope()), true);
+			if (previous.isPresent()) return previous;
+		}
+		// Gradle module cache: <cache>/<group>/<artifact>/<version>/<hash>/<file>
+		if (Obj.isNull(moduleCacheDirectory)) return Optional.empty();
+		
+		Set<String> versions = null;
+		for (String artifact : query.artifacts) {
+			File[] versionDirs = new File(moduleCacheDirectory, query.group + File.separator + artifact)
+				.listFiles(File::isDirectory);
+			if (Obj.isNull(versionDirs)) return Optional.empty();
+			
+			Set<String> available = Arrays.stream(versionDirs)
+				.filter(it -> hasClassifierFile(it, artifact, query.classifier))
+				.map(File::getName)
+				.collect(Collectors.toSet());
+			if (Obj.isNull(versions)) {
+				versions = available;
+			} else {
+				versions.retainAll(available);
+			}
+		}
+		return Obj.isNull(versions) ? Optional.empty() : query.selector.select(versions.stream());
+	}
+	
+	/**
+	 * Check if the classifier file of the artifact version was downloaded
+	 *
+	 * @param versionDir the artifact version directory
+	 * @param artifact   artifact id
+	 * @param classifier the required classifier or {@code null} to ignore it
+	 * @return {@code true} if the file exists or the classifier is not required
+	 */
+	private static boolean hasClassifierFile(@NotNull File versionDir, @NotNull String artifact,
+		@Nullable String classifier) {
+		if (Obj.isNull(classifier)) return true;
+		
+		String fileName = String.format("%s-%s-%s.jar", artifact, versionDir.getName(), classifier);
+		File[] hashDirs = versionDir.listFiles(File::isDirectory);
+		return Obj.isNotNull(hashDirs) && Arrays.stream(hashDirs).anyMatch(it -> new File(it, fileName).isFile());
+	}
+	
+	/* -----------------------------------------------------------------------
+	 * Internal types
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Lookup container with a max number of elements. The least recently used
+	 * lookups are removed first, lookups in progress are never removed.
+	 */
+	private static final class LookupCache extends LinkedHashMap<String, CompletableFuture<DependencyCache>> {
+		
+		/**
+		 * Max number of lookups
+		 */
+		private final int maxEntries;
+		
+		/**
+		 * Default constructor
+		 *
+		 * @param maxEntries max number of lookups
+		 */
+		LookupCache(int maxEntries) {
+			super(16, 0.75f, true);
+			this.maxEntries = maxEntries;
+		}
+		
+		/**
+		 * Check if the eldest lookup must be removed
+		 *
+		 * @param eldest the least recently used lookup
+		 * @return {@code true} if the lookup must be removed or {@code false} otherwise
+		 */
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, CompletableFuture<DependencyCache>> eldest) {
+			return size() > maxEntries && eldest.getValue().isDone();
+		}
+		
+	}
+	
+}
@@ -0,0 +1,357 @@
+package custom_jfx_plugin.dependency.base;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ushiosan.jvm_utilities.lang.Obj;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+public final class VersionIndex {
+	
+	/* -----------------------------------------------------------------------
+	 * Properties
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Marker used to remember the invalid versions
+	 */
+	private static final Version INVALID_VERSION = new Version("", new int[0], -1);
+	
+	/**
+	 * Early access build separator
+	 */
+	private static final String EARLY_SEPARATOR = "-ea+";
+	
+	/**
+	 * Max number of digits of each version number
+	 */
+	private static final int MAX_NUMBER_DIGITS = 9;
+	
+	/**
+	 * Versions already parsed. Each version is parsed only once.
+	 */
+	private final Map<String, Version> versions = new ConcurrentHashMap<>();
+	
+	/**
+	 * Selectors already parsed
+	 */
+	private final Map<String, Selector> selectors = new ConcurrentHashMap<>();
+	
+	/* -----------------------------------------------------------------------
+	 * Methods
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Returns the numeric key of the version
+	 *
+	 * @param version the version to parse
+	 * @return the version key or {@code null} if the version is not a release or early access version
+	 */
+	public @Nullable Version parse(@NotNull String version) {
+		Version result = versions.computeIfAbsent(version, VersionIndex::parseVersion);
+		return result == INVALID_VERSION ? null : result;
+	}
+	
+	/**
+	 * Returns the selector of the special version configuration. Valid configurations are
+	 * {@code latest}, {@code early}, {@code latest-<major>} and {@code early-<major>}.
+	 *
+	 * @param specialConfig special version configuration
+	 * @return the version selector
+	 * @throws IllegalStateException error if the configuration is not valid
+	 */
+	public @NotNull Selector selector(@NotNull String specialConfig) {
+		Selector selector = selectors.get(specialConfig);
+		if (Obj.isNotNull(selector)) return selector;
+		
+		// Split the selector name and the major version
+		int separator = specialConfig.indexOf('-');
+		String name = separator < 0 ? specialConfig : specialConfig.substring(0, separator);
+		int major = separator < 0 ? -1 : parseNumber(specialConfig, separator + 1, specialConfig.length());
+		
+		if ((!name.equals("latest") && !name.equals("early")) || (separator >= 0 && major < 0)) {
+			throw new IllegalStateException("Invalid version configuration: " + specialConfig);
+		}
+		return selectors.computeIfAbsent(specialConfig, it -> new Selector(this, name.equals("early"), major));
+	}
+	
+	/* -----------------------------------------------------------------------
+	 * Internal methods
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Parse the version numbers and the early access build number
+	 *
+	 * @param version the version to parse
+	 * @return the version key or {@link #INVALID_VERSION} if the version is not valid
+	 */
+	private static @NotNull Version parseVersion(@NotNull String version) {
+		int earlyIndex = version.indexOf(EARLY_SEPARATOR);
+		int numbersEnd = earlyIndex < 0 ? version.length() : earlyIndex;
+		int build = -1;
+		
+		// Early access build number
+		if (earlyIndex >= 0) {
+			build = parseNumber(version, earlyIndex + EARLY_SEPARATOR.length(), version.length());
+			if (build < 0) return INVALID_VERSION;
+		}
+		
+		// Version numbers
+		int count = 1;
+		for (int i = 0; i < numbersEnd; i++) {
+			if (version.charAt(i) == '.') count++;
+		}
+		
+		int[] numbers = new int[count];
+		int start = 0;
+		for (int i = 0; i < count; i++) {
+			int end = version.indexOf('.', start);
+			if (end < 0 || end > numbersEnd) end = numbersEnd;
+			
+			numbers[i] = parseNumber(version, start, end);
+			if (numbers[i] < 0) return INVALID_VERSION;
+			start = end + 1;
+		}
+		return new Version(version, numbers, build);
+	}
+	
+	/**
+	 * Parse a positive number without regular expressions
+	 *
+	 * @param content the content to parse
+	 * @param start   the first index (inclusive)
+	 * @param end     the last index (exclusive)
+	 * @return the number or {@code -1} if the content is not a valid number
+	 */
+	private static int parseNumber(@NotNull String content, int start, int end) {
+		if (start >= end || end - start > MAX_NUMBER_DIGITS) return -1;
+		
+		int value = 0;
+		for (int i = start; i < end; i++) {
+			char digit = content.charAt(i);
+			if (digit < '0' || digit > '9') return -1;
+			value = value * 10 + (digit - '0');
+		}
+		return value;
+	}
+	
+	/* -----------------------------------------------------------------------
+	 * Internal types
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Numeric version key. Release versions are newer than the early access
+	 * versions with the same numbers.
+	 */
+	public static final class Version implements Comparable<Version> {
+		
+		/**
+		 * Original version content
+		 */
+		private final String content;
+		
+		/**
+		 * Version numbers
+		 */
+		private final int[] numbers;
+		
+		/**
+		 * Early access build number or {@code -1} if is a release version
+		 */
+		private final int build;
+		
+		/**
+		 * Default constructor
+		 *
+		 * @param content original version content
+		 * @param numbers version numbers
+		 * @param build   early access build number or {@code -1} if is a release version
+		 */
+		private Version(@NotNull String content, int @NotNull [] numbers, int build) {
+			this.content = content;
+			this.numbers = numbers;
+			this.build = build;
+		}
+		
+		/**
+		 * Returns the original version content
+		 *
+		 * @return the version content
+		 */
+		public @NotNull String content() {
+			return content;
+		}
+		
+		/**
+		 * Returns the major version number
+		 *
+		 * @return the major version
+		 */
+		public int major() {
+			return numbers[0];
+		}
+		
+		/**
+		 * Returns {@code true} if is an early access version
+		 *
+		 * @return the version type
+		 */
+		public boolean isEarly() {
+			return build >= 0;
+		}
+		
+		/**
+		 * Returns {@code true} if is the first release of the major version
+		 * or one of its early access builds ({@code 21}, {@code 21.0.0}, {@code 21-ea+5})
+		 *
+		 * @return the version type
+		 */
+		public boolean isInitial() {
+			for (int i = 1; i < numbers.length; i++) {
+				if (numbers[i] != 0) return false;
+			}
+			return true;
+		}
+		
+		/**
+		 * Compare the version numbers, missing numbers are zero
+		 *
+		 * @param other the version to compare
+		 * @return the comparison result
+		 */
+		@Override
+		public int compareTo(@NotNull Version other) {
+			int length = Math.max(numbers.length, other.numbers.length);
+			for (int i = 0; i < length; i++) {
+				int current = i < numbers.length ? numbers[i] : 0;
+				int compare = i < other.numbers.length ? other.numbers[i] : 0;
+				if (current != compare) return Integer.compare(current, compare);
+			}
+			
+			// Release versions are the last versions
+			if (build != other.build) {
+				if (!isEarly()) return 1;
+				if (!other.isEarly()) return -1;
+				return Integer.compare(build, other.build);
+			}
+			return Integer.compare(numbers.length, other.numbers.length);
+		}
+		
+		@Override
+		public String toString() {
+			return content;
+		}
+		
+	}
+	
+	/**
+	 * Special version selector. Only keeps the latest accepted version.
+	 */
+	public static final class Selector {
+		
+		/**
+		 * Index used to parse the versions
+		 */
+		private final VersionIndex index;
+		
+		/**
+		 * Select early access versions
+		 */
+		private final boolean early;
+		
+		/**
+		 * Major version or {@code -1} to accept any major version
+		 */
+		private final int major;
+		
+		/**
+		 * Default constructor
+		 *
+		 * @param index the index used to parse the versions
+		 * @param early select early access versions
+		 * @param major major version or {@code -1} to accept any major version
+		 */
+		private Selector(@NotNull VersionIndex index, boolean early, int major) {
+			this.index = index;
+			this.early = early;
+			this.major = major;
+		}
+		
+		/**
+		 * Returns the major version of the selector
+		 *
+		 * @return the major version or {@code -1} if any major version is accepted
+		 */
+		public int major() {
+			return major;
+		}
+		
+		/**
+		 * Check if the version is accepted by the selector
+		 *
+		 * @param version the version to check
+		 * @return {@code true} if the version is accepted
+		 */
+		public boolean accepts(@Nullable Version version) {
+			return Obj.isNotNull(version) && version.isEarly() == early &&
+				   (major < 0 || version.major() == major);
+		}
+		
+		/**
+		 * Returns the latest version between the current selection and the candidate
+		 *
+		 * @param current   the current selection or {@code null} if no version was selected
+		 * @param candidate the version to inspect
+		 * @return the new selection
+		 */
+		public @Nullable Version select(@Nullable Version current, @NotNull String candidate) {
+			Version version = index.parse(candidate);
+			if (!accepts(version)) return current;
+			return Obj.isNull(current) || version.compareTo(current) > 0 ? version : current;
+		}
+		
+		/**
+		 * Check if no version newer than the current selection can appear after the scanned version.
+		 * The versions must be inspected from the newest published to the oldest published, and it is
+		 * assumed that each major version line is published in increasing order and that the first
+		 * release of each major version is published after the first release of the previous one.
+		 *
+		 * @param current the current selection or {@code null} if no version was selected
+		 * @param scanned the last inspected version
+		 * @return {@code true} if the selection is the latest version
+		 */
+		public boolean isComplete(@Nullable Version current, @NotNull String scanned) {
+			if (Obj.isNull(current)) return false;
+			// The first version of the major line is the latest one
+			if (major >= 0) return true;
+			
+			Version version = index.parse(scanned);
+			if (Obj.isNull(version) || version.major() != current.major() || !version.isInitial()) return false;
+			
+			// All versions of newer major lines were published after the first build of the selected line.
+			// The first early access build cannot be detected, so only the build 1 completes the selection.
+			return !early || version.build == 1;
+		}
+		
+		/**
+		 * Select the latest accepted version in a single pass
+		 *
+		 * @param versions the versions to inspect
+		 * @return the latest version or {@link Optional#empty()} if no version is accepted
+		 */
+		public @NotNull Optional<String> select(@NotNull Stream<String> versions) {
+			Iterator<String> iterator = versions.iterator();
+			Version latest = null;
+			while (iterator.hasNext()) {
+				latest = select(latest, iterator.next());
+			}
+			return Obj.isNull(latest) ? Optional.empty() : Optional.of(latest.content());
+		}
+		
+	}
+	
+}
@@ -1,190 +1,251 @@
 package custom_jfx_plugin.dependency.maven;
 
-import custom_jfx_plugin.dependency.base.Resolver;
-import custom_jfx_plugin.dependency.maven.response.MavenArtifact;
-import custom_jfx_plugin.dependency.maven.response.MavenResponse;
-import custom_jfx_plugin.utils.Msg;
+import custom_jfx_plugin.dependency.base.ArtifactQuery;
+import custom_jfx_plugin.dependency.base.DependencyDiskCache;
+import custom_jfx_plugin.dependency.base.HttpOptions;
+import custom_jfx_plugin.dependency.base.SpecialVersionResolver;
+import custom_jfx_plugin.dependency.base.VersionIndex;
+import custom_jfx_plugin.dependency.maven.response.MavenResponseReader;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import ushiosan.jvm_utilities.lang.Obj;
-import ushiosan.jvm_utilities.lang.collection.Collections;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
-import java.util.Arrays;
-import java.util.Comparator;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
-import java.util.Optional;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
-public final class MavenResolver extends Resolver<String, String> {
-	
-	/**
-	 * This class cannot be instantiated
-	 */
-	private MavenResolver() {}
+public final class MavenResolver extends SpecialVersionResolver {
 	
 	/* -----------------------------------------------------------------------
 	 * Properties
 	 * -----------------------------------------------------------------------*/
 	
+	/**
+	 * Maven central search service location
+	 */
+	public static final URI DEFAULT_SEARCH_LOCATION = URI.create("https://search.maven.org/solrsearch/select");
 	
 	/**
-	 * Resolver instance
+	 * Search service query
 	 */
-	private static MavenResolver INSTANCE;
+	private static final String API_QUERY = "?q=g:%s+AND+%s&core=gav&start=%d&rows=%d&wt=%s";
 	
+	/**
+	 * Max number of versions of each search page. The search results are sorted from the newest
+	 * published to the oldest published, so the latest version is usually in the first page.
+	 */
+	private static final int SEARCH_PAGE_SIZE = 20;
 	
 	/**
-	 * Maven API checker
+	 * Backend name used in the persistent cache scope
 	 */
-	private static final String API_ENTRY =
-		"https://search.maven.org/solrsearch/select?q=g:%s+AND+a:%s&core=gav&rows=%d&wt=%s";
+	private static final String BACKEND_NAME = "search";
 	
 	/**
-	 * Regular expression used to check if artifact special notation is valid
+	 * Search service location (maven central or a compatible mirror)
 	 */
-	private static final Pattern CONFIGURATION_CHECKER =
-		Pattern.compile("#(.+)#");
+	private final URI searchLocation;
 	
 	/**
-	 * Regular expression to detect valid latest version
+	 * Scope of the persistent resolutions, shared only by resolvers with the same search service
 	 */
-	private static final Pattern VALID_LATEST_VERSION =
-		Pattern.compile("^(\\d+\\.)*(\\*|\\d+)$");
+	private final String cacheScope;
+	
+	/* -----------------------------------------------------------------------
+	 * Constructors
+	 * -----------------------------------------------------------------------*/
 	
 	/**
-	 * Regular expression to detect valid early version
+	 * Default constructor
+	 *
+	 * @param versionIndex         the version index shared by all resolutions
+	 * @param httpOptions          http requests configuration
+	 * @param diskCache            the persistent cache or {@code null} to disable it
+	 * @param moduleCacheDirectory the gradle module cache directory or {@code null} to disable it
+	 * @param offline              {@code true} to resolve dependencies only with local information
+	 * @param maxCacheEntries      max number of lookups kept in memory
 	 */
-	private static final Pattern VALID_EARLY_VERSION =
-		Pattern.compile("^(\\d+\\.)*(\\d+-ea\\+\\d+)$");
+	public MavenResolver(@NotNull VersionIndex versionIndex, @NotNull HttpOptions httpOptions,
+		@Nullable DependencyDiskCache diskCache, @Nullable File moduleCacheDirectory, boolean offline,
+		int maxCacheEntries) {
+		this(versionIndex, httpOptions, diskCache, moduleCacheDirectory, offline, maxCacheEntries,
+			 DEFAULT_SEARCH_LOCATION);
+	}
 	
 	/**
-	 * Dependency cache container
+	 * Constructor with a custom search service
+	 *
+	 * @param versionIndex         the version index shared by all resolutions
+	 * @param httpOptions          http requests configuration
+	 * @param diskCache            the persistent cache or {@code null} to disable it
+	 * @param moduleCacheDirectory the gradle module cache directory or {@code null} to disable it
+	 * @param offline              {@code true} to resolve dependencies only with local information
+	 * @param maxCacheEntries      max number of lookups kept in memory
+	 * @param searchLocation       the search service location
 	 */
-	private final List<DependencyCache> dependencyCache = Collections.mutableListOf();
+	public MavenResolver(@NotNull VersionIndex versionIndex, @NotNull HttpOptions httpOptions,
+		@Nullable DependencyDiskCache diskCache, @Nullable File moduleCacheDirectory, boolean offline,
+		int maxCacheEntries, @NotNull URI searchLocation) {
+		super(versionIndex, httpOptions, diskCache, moduleCacheDirectory, offline, maxCacheEntries);
+		this.searchLocation = searchLocation;
+		this.cacheScope = DependencyDiskCache.scope(BACKEND_NAME, List.of(searchLocation));
+	}
 	
 	/* -----------------------------------------------------------------------
 	 * Methods
 	 * -----------------------------------------------------------------------*/
 	
 	/**
-	 * Resolve dependency configuration
+	 * Returns the scope of the persistent resolutions
 	 *
-	 * @param configuration configuration content
-	 * @param silent        don't show user information
-	 * @return dependency result
+	 * @return the search backend and the search location hash
 	 */
 	@Override
-	public @NotNull String resolveDependency(@NotNull String configuration, boolean silent) {
-		// Split configuration in multiples elements
-		String[] elements = configuration.split(":");
-		if (elements.length < 3 || elements.length > 4) return configuration;
-		
-		// Validate if configuration contains special configuration
-		Matcher matcher = CONFIGURATION_CHECKER.matcher(configuration);
-		if (!matcher.find()) return configuration;
+	public @NotNull String cacheScope() {
+		return cacheScope;
+	}
+	
+	/* -----------------------------------------------------------------------
+	 * Internal methods
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Resolve artifact from http request. All artifacts of the query are searched with a single
+	 * request and the published files ({@code ec}) of each artifact are checked, so the selected
+	 * version is the newest one that all artifacts publish with the query classifier. Only the
+	 * first page is revalidated with the previous resolution validators because new artifacts
+	 * are always added to the first page.
+	 *
+	 * @param query    the artifacts to resolve
+	 * @param previous the previous (expired) resolution or {@code null} if not exists
+	 * @return the latest artifact result
+	 */
+	@Override
+	protected @NotNull CompletableFuture<DependencyDiskCache.Entry> fetchArtifact(@NotNull ArtifactQuery query,
+		@Nullable DependencyDiskCache.Entry previous) {
+		HttpRequest request = pageRequest(query, 0, previous);
 		
-		// Store special configuration
-		String specialConfig = matcher.group(1);
-		Optional<DependencyCache> cacheFound = dependencyCache.stream()
-			.filter(it -> it.configuration.equals(configuration) && it.special.equals(specialConfig))
-			.findAny();
+		// Send HTTP request without blocking the caller
+		return sendAsync(request)
+			.thenCompose(response -> {
+				// The search result was not modified, the response doesn't need to be parsed
+				if (response.statusCode() == HTTP_NOT_MODIFIED && Obj.isNotNull(previous)) {
+					try (InputStream ignore = response.body()) {
+						return CompletableFuture.completedFuture(previous);
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				}
+				String etag = response.headers().firstValue("ETag").orElse(null);
+				String lastModified = response.headers().firstValue("Last-Modified").orElse(null);
+				
+				MavenResponseReader.Summary summary =
+					new MavenResponseReader.Summary(query.artifacts, query.classifierFile());
+				return continueSearch(query, parseHttpPage(query.selector, summary, response), 0)
+					.thenApply(it -> new DependencyDiskCache.Entry(resolveLatestVersion(query, it), etag, lastModified));
+			});
+	}
+	
+	/**
+	 * Generate the request of a search page. The page size grows with the number of artifacts,
+	 * so each page contains the same number of versions.
+	 *
+	 * @param query    the artifacts to resolve
+	 * @param start    the index with the first artifact
+	 * @param previous the previous resolution used to make a conditional request or {@code null} to disable it
+	 * @return the page request
+	 */
+	private @NotNull HttpRequest pageRequest(@NotNull ArtifactQuery query, int start,
+		@Nullable DependencyDiskCache.Entry previous) {
+		// Resolve API url: g:<group> AND (a:<artifact> OR a:<artifact>...)
+		String artifacts = query.artifacts.stream()
+			.map(it -> "a:" + it)
+			.collect(Collectors.joining("+OR+"));
+		if (query.artifacts.size() > 1) artifacts = "(" + artifacts + ")";
 		
-		// Returns the cached result if exists
-		if (cacheFound.isPresent()) return cacheFound.get().resolved;
+		String url = searchLocation + String.format(API_QUERY, query.group, artifacts, start,
+													SEARCH_PAGE_SIZE * query.artifacts.size(), "json");
+		HttpRequest.Builder request = newRequest(URI.create(url));
 		
-		// Http artifact request
-		String resolvedArtifact;
-		switch (specialConfig) {
-			case "latest":
-				resolvedArtifact = resolveHttpArtifact(elements[0], elements[1], VALID_LATEST_VERSION);
-				break;
-			case "early":
-				resolvedArtifact = resolveHttpArtifact(elements[0], elements[1], VALID_EARLY_VERSION);
-				break;
-			default:
-				throw new IllegalStateException("Invalid version configuration");
+		// Conditional request
+		if (Obj.isNotNull(previous)) {
+			Obj.notNull(previous.etag, it -> request.setHeader("If-None-Match", it));
+			Obj.notNull(previous.lastModified, it -> request.setHeader("If-Modified-Since", it));
 		}
+		return request.build();
+	}
+	
+	/**
+	 * Request the next search pages one by one until the selection is complete or all artifacts were read
+	 *
+	 * @param query   the artifacts to resolve
+	 * @param summary the summary of the previous pages
+	 * @param start   the index with the first artifact of the last page
+	 * @return the summary of all pages
+	 */
+	private @NotNull CompletableFuture<MavenResponseReader.Summary> continueSearch(@NotNull ArtifactQuery query,
+		@NotNull MavenResponseReader.Summary summary, int start) {
+		// Empty pages stop the search
+		if (!summary.hasNext() || summary.count() <= start) return CompletableFuture.completedFuture(summary);
 		
-		// Generate real valid artifact configuration
-		String realArtifact = configuration.substring(0, matcher.start()) + resolvedArtifact;
-		
-		// Attach resolved artifact to cached elements
-		if (!silent) Msg.info("Resolved dependency (%s) %s", specialConfig, realArtifact);
-		dependencyCache.add(new DependencyCache(configuration, realArtifact, specialConfig));
-		
-		return realArtifact;
+		int next = summary.count();
+		return sendAsync(pageRequest(query, next, null))
+			.thenCompose(response -> continueSearch(query, parseHttpPage(query.selector, summary, response), next));
 	}
 	
 	/**
-	 * Get object instance
+	 * Returns the latest version of all pages
 	 *
-	 * @return maven resolver instance
+	 * @param query   the artifacts to resolve
+	 * @param summary the summary of all pages
+	 * @return the latest version
 	 */
-	public static Resolver<String, String> getInstance() {
-		if (Obj.isNull(INSTANCE)) {
-			INSTANCE = new MavenResolver();
+	private static @NotNull String resolveLatestVersion(@NotNull ArtifactQuery query,
+		@NotNull MavenResponseReader.Summary summary) {
+		// Check if response is valid
+		if (summary.found() == 0) {
+			throw new UncheckedIOException(new IOException("Invalid request response or empty result"));
 		}
 		
-		return INSTANCE;
+		// No version is published for all artifacts (with the classifier)
+		if (Obj.isNull(summary.latest())) {
+			throw new UncheckedIOException(new IOException(
+				String.format("No \"%s\" version found for artifact \"%s\"", query.special, query)));
+		}
+		return summary.latest();
 	}
 	
-	/* -----------------------------------------------------------------------
-	 * Internal methods
-	 * -----------------------------------------------------------------------*/
-	
 	/**
-	 * Resolve artifact from http request
+	 * Parse the http response page
 	 *
-	 * @param group          artifact group
-	 * @param artifact       artifact id
-	 * @param versionPattern version pattern object
-	 * @return the latest artifact result
+	 * @param selector the version selector
+	 * @param summary  the summary of the previous pages
+	 * @param response the http response
+	 * @return the updated summary
+	 * @throws UncheckedIOException error if the response is not valid
 	 */
-	private String resolveHttpArtifact(@NotNull String group, @NotNull String artifact, @NotNull Pattern versionPattern) {
-		// Resolve API url
-		String url = String.format(API_ENTRY, group, artifact, MAX_RESULTS, "json");
-		HttpRequest request = HttpRequest.newBuilder()
-			.uri(URI.create(url))
-			.setHeader("User-Agent", HTTP_USER_AGENT)
-			.GET()
-			.build();
+	private static @NotNull MavenResponseReader.Summary parseHttpPage(@NotNull VersionIndex.Selector selector,
+		@NotNull MavenResponseReader.Summary summary, @NotNull HttpResponse<InputStream> response) {
+		int responseCode = response.statusCode();
 		
-		// Send HTTP request
-		try {
-			HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
-			int responseCode = response.statusCode();
-			
+		// Parse json content as a stream, only the versions are read
+		try (InputStreamReader reader = new InputStreamReader(response.body(), StandardCharsets.UTF_8)) {
 			// Check response errors
 			if (HTTP_INVALID_CODES.containsKey(responseCode)) {
 				throw new IOException("Error to make http request: " + HTTP_INVALID_CODES.get(responseCode));
 			}
-			
-			// Parse json content
-			InputStreamReader reader = new InputStreamReader(response.body());
-			MavenResponse mavenResponse = serializer.fromJson(reader, MavenResponse.class);
-			
-			// Check if response is valid
-			if (mavenResponse.response() == null || mavenResponse.response().found() == 0) {
-				throw new IOException("Invalid request response or empty result");
-			}
-			
-			// Return the last artifact element
-			return Arrays.stream(mavenResponse.response().content())
-				.filter(it -> {
-					Matcher matcher = versionPattern.matcher(it.version());
-					return matcher.find();
-				})
-				.max(Comparator.comparing(MavenArtifact::version))
-				.orElseThrow(() -> new IOException(String.format("Artifact \"%s\" not found", group + ":" + artifact)))
-				.version();
-		} catch (IOException | InterruptedException e) {
-			throw new RuntimeException(e);
+			return MavenResponseReader.read(reader, selector, summary);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
 		}
 	}
 	
@@ -0,0 +1,304 @@
+package custom_jfx_plugin.dependency.maven.response;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import custom_jfx_plugin.dependency.base.VersionIndex;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ushiosan.jvm_utilities.lang.Obj;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+public final class MavenResponseReader {
+	
+	/**
+	 * This class cannot be instantiated
+	 */
+	private MavenResponseReader() {}
+	
+	/* -----------------------------------------------------------------------
+	 * Methods
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Read a search response as a stream. Only the artifact versions are read, all other
+	 * fields are skipped without being materialized, and the latest version is selected
+	 * while the content is read.
+	 *
+	 * @param reader   the response content
+	 * @param selector the version selector
+	 * @return the response summary
+	 * @throws IOException error if the content is not valid
+	 */
+	public static @NotNull Summary read(@NotNull Reader reader, @NotNull VersionIndex.Selector selector) throws IOException {
+		return read(reader, selector, new Summary());
+	}
+	
+	/**
+	 * Read a search response page as a stream and add its content to the summary
+	 * of the previous pages. The artifacts after the point where the selection is
+	 * complete are skipped.
+	 *
+	 * @param reader   the response page content
+	 * @param selector the version selector
+	 * @param summary  the summary of the previous pages
+	 * @return the updated summary
+	 * @throws IOException error if the content is not valid
+	 * @see VersionIndex.Selector#isComplete(VersionIndex.Version, String)
+	 */
+	public static @NotNull Summary read(@NotNull Reader reader, @NotNull VersionIndex.Selector selector,
+		@NotNull Summary summary) throws IOException {
+		JsonReader json = new JsonReader(reader);
+		
+		json.beginObject();
+		while (json.hasNext()) {
+			if ("response".equals(json.nextName()) && json.peek() == JsonToken.BEGIN_OBJECT) {
+				readResponse(json, summary, selector);
+			} else {
+				json.skipValue();
+			}
+		}
+		json.endObject();
+		
+		return summary;
+	}
+	
+	/* -----------------------------------------------------------------------
+	 * Internal methods
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Read the response object
+	 *
+	 * @param json     the json stream
+	 * @param summary  the response summary
+	 * @param selector the version selector
+	 * @throws IOException error if the content is not valid
+	 */
+	private static void readResponse(@NotNull JsonReader json, @NotNull Summary summary,
+		@NotNull VersionIndex.Selector selector) throws IOException {
+		json.beginObject();
+		while (json.hasNext()) {
+			switch (json.nextName()) {
+				case "numFound":
+					summary.found = json.nextInt();
+					break;
+				case "start":
+					summary.start = json.nextInt();
+					break;
+				case "docs":
+					readArtifacts(json, summary, selector);
+					break;
+				default:
+					json.skipValue();
+			}
+		}
+		json.endObject();
+	}
+	
+	/**
+	 * Read all artifacts and keep only the latest version. A version is valid only when all
+	 * artifacts of the search are published with the classifier file.
+	 *
+	 * @param json     the json stream
+	 * @param summary  the response summary
+	 * @param selector the version selector
+	 * @throws IOException error if the content is not valid
+	 */
+	private static void readArtifacts(@NotNull JsonReader json, @NotNull Summary summary,
+		@NotNull VersionIndex.Selector selector) throws IOException {
+		json.beginArray();
+		while (json.hasNext()) {
+			summary.count++;
+			
+			// The selection cannot change anymore
+			if (summary.complete) {
+				json.skipValue();
+				continue;
+			}
+			
+			String artifact = null;
+			String version = null;
+			boolean classifier = Obj.isNull(summary.classifierFile);
+			json.beginObject();
+			while (json.hasNext()) {
+				String name = json.nextName();
+				if ("a".equals(name) && json.peek() == JsonToken.STRING) {
+					artifact = json.nextString();
+				} else if ("v".equals(name) && json.peek() == JsonToken.STRING) {
+					version = json.nextString();
+				} else if ("ec".equals(name) && !classifier && json.peek() == JsonToken.BEGIN_ARRAY) {
+					classifier = readClassifier(json, summary.classifierFile);
+				} else {
+					json.skipValue();
+				}
+			}
+			json.endObject();
+			if (Obj.isNull(version) || !classifier || !summary.cover(artifact, version)) continue;
+			
+			// Running maximum
+			summary.latest = selector.select(summary.latest, version);
+			summary.complete = selector.isComplete(summary.latest, version);
+		}
+		json.endArray();
+	}
+	
+	/**
+	 * Read the published files of an artifact and check if the classifier file is published
+	 *
+	 * @param json           the json stream
+	 * @param classifierFile the classifier file suffix
+	 * @return {@code true} if the classifier file is published or {@code false} otherwise
+	 * @throws IOException error if the content is not valid
+	 */
+	private static boolean readClassifier(@NotNull JsonReader json, @NotNull String classifierFile) throws IOException {
+		boolean found = false;
+		json.beginArray();
+		while (json.hasNext()) {
+			if (!found && json.peek() == JsonToken.STRING) {
+				found = classifierFile.equals(json.nextString());
+			} else {
+				json.skipValue();
+			}
+		}
+		json.endArray();
+		return found;
+	}
+	
+	/* -----------------------------------------------------------------------
+	 * Internal types
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Search response summary. The same summary is used by all pages of a search.
+	 */
+	public static final class Summary {
+		
+		/**
+		 * Artifacts that must be published with the selected version (empty to accept any artifact)
+		 */
+		private final Set<String> artifacts;
+		
+		/**
+		 * Classifier file suffix that all artifacts must publish or {@code null} to ignore it
+		 */
+		private final String classifierFile;
+		
+		/**
+		 * Artifacts found of each version, only used when multiple artifacts are searched
+		 */
+		private final Map<String, Set<String>> coverage = new HashMap<>();
+		
+		/**
+		 * Total of artifacts
+		 */
+		private int found;
+		
+		/**
+		 * The index with the first artifact of the last page
+		 */
+		private int start;
+		
+		/**
+		 * Number of artifacts read in all pages
+		 */
+		private int count;
+		
+		/**
+		 * The latest valid version
+		 */
+		private VersionIndex.Version latest;
+		
+		/**
+		 * The latest version cannot change with the remaining artifacts
+		 */
+		private boolean complete;
+		
+		/**
+		 * Create an empty summary for a new search that accepts any artifact
+		 */
+		public Summary() {
+			this(Set.of(), null);
+		}
+		
+		/**
+		 * Create an empty summary for a new search of multiple artifacts
+		 *
+		 * @param artifacts      artifacts that must be published with the selected version
+		 * @param classifierFile classifier file suffix ({@code -mac-aarch64.jar}) or {@code null} to ignore it
+		 */
+		public Summary(@NotNull Collection<String> artifacts, @Nullable String classifierFile) {
+			this.artifacts = Set.copyOf(artifacts);
+			this.classifierFile = classifierFile;
+		}
+		
+		/**
+		 * Returns the total of artifacts
+		 *
+		 * @return total of artifacts
+		 */
+		public int found() {
+			return found;
+		}
+		
+		/**
+		 * Returns the index with the first artifact of the last page
+		 *
+		 * @return the first artifact index
+		 */
+		public int start() {
+			return start;
+		}
+		
+		/**
+		 * Returns the number of artifacts read in all pages
+		 *
+		 * @return number of artifacts
+		 */
+		public int count() {
+			return count;
+		}
+		
+		/**
+		 * Returns the latest valid version
+		 *
+		 * @return the latest version or {@code null} if no version matches
+		 */
+		public @Nullable String latest() {
+			return Obj.isNull(latest) ? null : latest.content();
+		}
+		
+		/**
+		 * Returns {@code true} if the next page must be read
+		 *
+		 * @return the search state
+		 */
+		public boolean hasNext() {
+			return !complete && count < found;
+		}
+		
+		/**
+		 * Register an artifact version and check if the version was found for all artifacts
+		 *
+		 * @param artifact the artifact id or {@code null} if the response doesn't have it
+		 * @param version  the artifact version
+		 * @return {@code true} if the version is valid for all artifacts
+		 */
+		private boolean cover(@Nullable String artifact, @NotNull String version) {
+			if (artifacts.isEmpty()) return true;
+			if (Obj.isNull(artifact) || !artifacts.contains(artifact)) return false;
+			if (artifacts.size() == 1) return true;
+			
+			Set<String> found = coverage.computeIfAbsent(version, it -> new HashSet<>());
+			return found.add(artifact) && found.size() == artifacts.size();
+		}
+		
+	}
+	
+}
@@ -0,0 +1,370 @@
+package custom_jfx_plugin.dependency.metadata;
+
+import custom_jfx_plugin.dependency.base.ArtifactQuery;
+import custom_jfx_plugin.dependency.base.DependencyDiskCache;
+import custom_jfx_plugin.dependency.base.HttpOptions;
+import custom_jfx_plugin.dependency.base.SpecialVersionResolver;
+import custom_jfx_plugin.dependency.base.VersionIndex;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ushiosan.jvm_utilities.lang.Obj;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+public final class MetadataResolver extends SpecialVersionResolver {
+	
+	/* -----------------------------------------------------------------------
+	 * Properties
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Metadata file of remote repositories
+	 */
+	private static final String METADATA_FILE = "maven-metadata.xml";
+	
+	/**
+	 * Metadata file of the maven local repository
+	 */
+	private static final String LOCAL_METADATA_FILE = "maven-metadata-local.xml";
+	
+	/**
+	 * Backend name used in the persistent cache scope
+	 */
+	private static final String BACKEND_NAME = "metadata";
+	
+	/**
+	 * Stored "ETag" validator key
+	 */
+	private static final String ETAG_KEY = "etag";
+	
+	/**
+	 * Stored "Last-Modified" validator key
+	 */
+	private static final String LAST_MODIFIED_KEY = "lastModified";
+	
+	/**
+	 * Streaming xml parser factory
+	 */
+	private static final XMLInputFactory XML_FACTORY = createXmlFactory();
+	
+	/**
+	 * Repositories used to find the artifact metadata
+	 */
+	private final List<URI> repositories;
+	
+	/**
+	 * Directory with the last downloaded metadata and its validators
+	 */
+	private final Path metadataDirectory;
+	
+	/**
+	 * Scope of the persistent resolutions, shared only by resolvers with the same repositories
+	 */
+	private final String cacheScope;
+	
+	/* -----------------------------------------------------------------------
+	 * Constructors
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Default constructor
+	 *
+	 * @param repositories         repositories used to find the artifact metadata
+	 * @param metadataDirectory    directory with the last downloaded metadata
+	 * @param versionIndex         the version index shared by all resolutions
+	 * @param httpOptions          http requests configuration
+	 * @param diskCache            the persistent cache or {@code null} to disable it
+	 * @param moduleCacheDirectory the gradle module cache directory or {@code null} to disable it
+	 * @param offline              {@code true} to resolve dependencies only with local information
+	 * @param maxCacheEntries      max number of lookups kept in memory
+	 */
+	public MetadataResolver(@NotNull List<URI> repositories, @NotNull File metadataDirectory,
+		@NotNull VersionIndex versionIndex, @NotNull HttpOptions httpOptions,
+		@Nullable DependencyDiskCache diskCache, @Nullable File moduleCacheDirectory,
+		boolean offline, int maxCacheEntries) {
+		super(versionIndex, httpOptions, diskCache, moduleCacheDirectory, offline, maxCacheEntries);
+		this.repositories = List.copyOf(repositories);
+		this.metadataDirectory = metadataDirectory.toPath();
+		this.cacheScope = DependencyDiskCache.scope(BACKEND_NAME, this.repositories);
+	}
+	
+	/* -----------------------------------------------------------------------
+	 * Methods
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Returns the scope of the persistent resolutions
+	 *
+	 * @return the metadata backend and the repositories hash
+	 */
+	@Override
+	public @NotNull String cacheScope() {
+		return cacheScope;
+	}
+	
+	/* -----------------------------------------------------------------------
+	 * Internal methods
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Resolve artifact from the metadata of all repositories. Each metadata file is revalidated
+	 * with its own validators, so the previous resolution is not used. When multiple artifacts
+	 * are resolved together only the versions of all artifacts are valid, the metadata doesn't
+	 * contain the published files, so the query classifier is not checked.
+	 *
+	 * @param query    the artifacts to resolve
+	 * @param previous the previous (expired) resolution or {@code null} if not exists
+	 * @return the latest artifact result
+	 */
+	@Override
+	protected @NotNull CompletableFuture<DependencyDiskCache.Entry> fetchArtifact(@NotNull ArtifactQuery query,
+		@Nullable DependencyDiskCache.Entry previous) {
+		List<CompletableFuture<Set<String>>> artifacts = query.artifacts.stream()
+			.map(it -> fetchArtifactVersions(query.group.replace('.', '/') + "/" + it + "/"))
+			.collect(Collectors.toList());
+		
+		// All artifacts are requested at the same time
+		return CompletableFuture.allOf(artifacts.toArray(CompletableFuture[]::new))
+			.thenApply(ignore -> {
+				Set<String> versions = new HashSet<>(artifacts.get(0).join());
+				artifacts.forEach(it -> versions.retainAll(it.join()));
+				
+				return query.selector.select(versions.stream())
+					.map(it -> new DependencyDiskCache.Entry(it, null, null))
+					.orElseThrow(() -> new UncheckedIOException(new IOException(
+						String.format("Artifact \"%s\" not found in %s", query, repositories))));
+			});
+	}
+	
+	/**
+	 * Fetch the versions of an artifact declared in all repositories
+	 *
+	 * @param artifactPath the artifact path inside the repositories
+	 * @return all artifact versions
+	 */
+	private @NotNull CompletableFuture<Set<String>> fetchArtifactVersions(@NotNull String artifactPath) {
+		List<CompletableFuture<List<String>>> requests = repositories.stream()
+			.map(it -> fetchVersions(it, artifactPath))
+			.collect(Collectors.toList());
+		
+		// All repositories are requested at the same time
+		return CompletableFuture.allOf(requests.toArray(CompletableFuture[]::new))
+			.thenApply(ignore -> requests.stream()
+				.flatMap(it -> it.join().stream())
+				.collect(Collectors.toSet()));
+	}
+	
+	/**
+	 * Fetch all versions declared in the repository metadata
+	 *
+	 * @param repository   the repository location
+	 * @param artifactPath the artifact path inside the repository
+	 * @return all artifact versions or an empty list if the repository doesn't contain the artifact
+	 */
+	private @NotNull CompletableFuture<List<String>> fetchVersions(@NotNull URI repository,
+		@NotNull String artifactPath) {
+		String base = repository.toString().endsWith("/") ? repository.toString() : repository + "/";
+		URI artifactLocation = URI.create(base + artifactPath);
+		
+		// Local repositories and mirrors are read directly
+		if ("file".equalsIgnoreCase(artifactLocation.getScheme())) {
+			return CompletableFuture.supplyAsync(() -> readLocalVersions(Paths.get(artifactLocation)), httpExecutor());
+		}
+		return fetchRemoteVersions(artifactLocation.resolve(METADATA_FILE));
+	}
+	
+	/**
+	 * Read all versions of a local repository
+	 *
+	 * @param artifactDirectory the artifact directory
+	 * @return all artifact versions or an empty list if the repository doesn't contain the artifact
+	 */
+	private @NotNull List<String> readLocalVersions(@NotNull Path artifactDirectory) {
+		for (String name : List.of(METADATA_FILE, LOCAL_METADATA_FILE)) {
+			Path metadata = artifactDirectory.resolve(name);
+			if (!Files.isRegularFile(metadata)) continue;
+			
+			try (InputStream stream = Files.newInputStream(metadata)) {
+				return parseVersions(stream);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		return List.of();
+	}
+	
+	/**
+	 * Fetch all versions of a remote repository. The last downloaded metadata validators
+	 * are sent with the request, so the content is downloaded only if it was modified.
+	 *
+	 * @param metadataLocation the metadata location
+	 * @return all artifact versions or an empty list if the repository doesn't contain the artifact
+	 */
+	private @NotNull CompletableFuture<List<String>> fetchRemoteVersions(@NotNull URI metadataLocation) {
+		String cacheName = cacheName(metadataLocation);
+		Path cachedContent = metadataDirectory.resolve(cacheName + ".xml");
+		Path cachedValidators = metadataDirectory.resolve(cacheName + ".properties");
+		Properties validators = Files.isRegularFile(cachedContent) ? loadValidators(cachedValidators) : new Properties();
+		
+		// Conditional request
+		HttpRequest.Builder request = newRequest(metadataLocation);
+		Obj.notNull(validators.getProperty(ETAG_KEY), it -> request.setHeader("If-None-Match", it));
+		Obj.notNull(validators.getProperty(LAST_MODIFIED_KEY), it -> request.setHeader("If-Modified-Since", it));
+		
+		return sendAsync(request.build())
+			.thenApply(response -> {
+				try (InputStream body = response.body()) {
+					int responseCode = response.statusCode();
+					// Content not modified, the last downloaded metadata is used
+					if (responseCode == HTTP_NOT_MODIFIED) return readCachedVersions(cachedContent);
+					// The repository doesn't contain the artifact
+					if (responseCode == 404) return List.<String>of();
+					if (HTTP_INVALID_CODES.containsKey(responseCode)) {
+						throw new IOException("Error to make http request: " + HTTP_INVALID_CODES.get(responseCode));
+					}
+					
+					// Store the content and its validators
+					Properties newValidators = new Properties();
+					response.headers().firstValue("ETag").ifPresent(it -> newValidators.setProperty(ETAG_KEY, it));
+					response.headers().firstValue("Last-Modified")
+						.ifPresent(it -> newValidators.setProperty(LAST_MODIFIED_KEY, it));
+					storeMetadata(body, cachedContent, cachedValidators, newValidators);
+					
+					return readCachedVersions(cachedContent);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+	}
+	
+	/**
+	 * Read all versions of the last downloaded metadata
+	 *
+	 * @param cachedContent the downloaded metadata
+	 * @return all artifact versions
+	 * @throws IOException error if the file cannot be read
+	 */
+	private @NotNull List<String> readCachedVersions(@NotNull Path cachedContent) throws IOException {
+		try (InputStream stream = Files.newInputStream(cachedContent)) {
+			return parseVersions(stream);
+		}
+	}
+	
+	/**
+	 * Store the downloaded metadata and its validators
+	 *
+	 * @param body             the metadata content
+	 * @param cachedContent    metadata destination
+	 * @param cachedValidators validators destination
+	 * @param validators       the metadata validators
+	 * @throws IOException error if the files cannot be written
+	 */
+	private void storeMetadata(@NotNull InputStream body, @NotNull Path cachedContent, @NotNull Path cachedValidators,
+		@NotNull Properties validators) throws IOException {
+		Files.createDirectories(metadataDirectory);
+		
+		// Write temporal files and replace the original files
+		Path temporalContent = Files.createTempFile(metadataDirectory, METADATA_FILE, ".tmp");
+		Files.copy(body, temporalContent, StandardCopyOption.REPLACE_EXISTING);
+		Path temporalValidators = Files.createTempFile(metadataDirectory, METADATA_FILE, ".tmp");
+		try (Writer writer = Files.newBufferedWriter(temporalValidators, StandardCharsets.UTF_8)) {
+			validators.store(writer, null);
+		}
+		
+		Files.move(temporalContent, cachedContent, StandardCopyOption.REPLACE_EXISTING,
+				   StandardCopyOption.ATOMIC_MOVE);
+		Files.move(temporalValidators, cachedValidators, StandardCopyOption.REPLACE_EXISTING,
+				   StandardCopyOption.ATOMIC_MOVE);
+	}
+	
+	/**
+	 * Load the stored metadata validators
+	 *
+	 * @param cachedValidators the validators file
+	 * @return the stored validators or empty validators if the file not exists
+	 */
+	private static @NotNull Properties loadValidators(@NotNull Path cachedValidators) {
+		Properties properties = new Properties();
+		if (!Files.isRegularFile(cachedValidators)) return properties;
+		
+		try (Reader reader = Files.newBufferedReader(cachedValidators, StandardCharsets.UTF_8)) {
+			properties.load(reader);
+		} catch (IOException ignore) {
+			// Invalid validators only cause a full download
+		}
+		return properties;
+	}
+	
+	/**
+	 * Parse all versions from the metadata content. The content is parsed as
+	 * a stream and only {@code <version>} elements are inspected.
+	 *
+	 * @param stream the metadata content
+	 * @return all artifact versions
+	 * @throws IOException error if the content is not valid
+	 */
+	private static @NotNull List<String> parseVersions(@NotNull InputStream stream) throws IOException {
+		List<String> versions = new ArrayList<>();
+		try {
+			XMLStreamReader reader = XML_FACTORY.createXMLStreamReader(stream);
+			try {
+				while (reader.hasNext()) {
+					if (reader.next() == XMLStreamConstants.START_ELEMENT && "version".equals(reader.getLocalName())) {
+						versions.add(reader.getElementText().trim());
+					}
+				}
+			} finally {
+				reader.close();
+			}
+		} catch (XMLStreamException e) {
+			throw new IOException("Invalid maven metadata content", e);
+		}
+		return versions;
+	}
+	
+	/**
+	 * Generate the name used to store the metadata of a location
+	 *
+	 * @param location the metadata location
+	 * @return the file name
+	 */
+	private static @NotNull String cacheName(@NotNull URI location) {
+		return DependencyDiskCache.hash(location.toString());
+	}
+	
+	/**
+	 * Create the xml parser factory without external entities support
+	 *
+	 * @return the xml parser factory
+	 */
+	private static @NotNull XMLInputFactory createXmlFactory() {
+		XMLInputFactory factory = XMLInputFactory.newFactory();
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		return factory;
+	}
+	
+}
@@ -0,0 +1,168 @@
+package custom_jfx_plugin.task;
+
+import custom_jfx_plugin.configuration.JfxModule;
+import custom_jfx_plugin.utils.JfxJar;
+import custom_jfx_plugin.utils.ModuleUtils;
+import custom_jfx_plugin.utils.Msg;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.SetProperty;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.TaskAction;
+import ushiosan.jvm_utilities.lang.Obj;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public abstract class JfxPrefetchTask extends DefaultTask {
+	
+	/* -----------------------------------------------------------------------
+	 * Properties
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Group of the JavaFX artifacts in the module cache
+	 */
+	private static final String JFX_GROUP = "org.openjfx";
+	
+	/**
+	 * JavaFX modules prefetched for each platform
+	 *
+	 * @return the project modules
+	 */
+	@Input
+	public abstract SetProperty<JfxModule> getModules();
+	
+	/**
+	 * Platform classifiers of the prefetched artifacts
+	 *
+	 * @return all platform classifiers
+	 */
+	@Input
+	public abstract SetProperty<String> getClassifiers();
+	
+	/**
+	 * Local JavaFX SDK state, the SDK jars are never downloaded
+	 *
+	 * @return {@code true} if the project uses a local SDK
+	 */
+	@Input
+	public abstract Property<Boolean> getSdk();
+	
+	/**
+	 * Module artifacts of all platforms. The artifacts that are not published are not included.
+	 * The artifacts are resolved during the execution, so the task can measure the download.
+	 *
+	 * @return the platform artifacts
+	 */
+	@Internal
+	public abstract ConfigurableFileCollection getArtifacts();
+	
+	/**
+	 * Gradle module cache directory, used to know which artifacts were downloaded by the task
+	 *
+	 * @return the module cache directory
+	 */
+	@Internal
+	public abstract DirectoryProperty getModuleCacheDirectory();
+	
+	/* -----------------------------------------------------------------------
+	 * Constructors
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Default constructor
+	 */
+	public JfxPrefetchTask() {
+		setDescription("Downloads the JavaFX modules of all supported platforms to the Gradle cache.");
+	}
+	
+	/* -----------------------------------------------------------------------
+	 * Methods
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Task execution process. The artifacts are resolved by gradle and the task reports
+	 * the downloaded bytes and the time of the resolution.
+	 */
+	@TaskAction
+	public void taskProcess() {
+		if (getSdk().get()) {
+			Msg.info("JavaFX SDK is used, nothing to prefetch");
+			return;
+		}
+		
+		// Files already downloaded are not fetched again
+		Set<Path> cachedFiles = cachedFiles();
+		long elapsed = System.nanoTime();
+		Set<File> artifacts = getArtifacts().getFiles();
+		Duration duration = Duration.ofNanos(System.nanoTime() - elapsed);
+		
+		// Modules resolved for each platform
+		Map<String, Set<JfxModule>> resolved = new HashMap<>();
+		long totalBytes = 0;
+		long fetchedBytes = 0;
+		for (File file : artifacts) {
+			JfxJar jar = JfxJar.parse(file.getName());
+			if (Obj.isNotNull(jar) && Obj.isNotNull(jar.classifier)) {
+				resolved.computeIfAbsent(jar.classifier, it -> EnumSet.noneOf(JfxModule.class)).add(jar.module);
+			}
+			totalBytes += file.length();
+			if (!cachedFiles.contains(file.toPath().toAbsolutePath())) {
+				fetchedBytes += file.length();
+			}
+		}
+		
+		// Not all platforms are published with all versions
+		Set<JfxModule> modules = getModules().get();
+		for (String classifier : getClassifiers().get()) {
+			Set<JfxModule> missing = EnumSet.noneOf(JfxModule.class);
+			missing.addAll(modules);
+			missing.removeAll(resolved.getOrDefault(classifier, Set.of()));
+			if (missing.isEmpty()) continue;
+			
+			String names = missing.stream()
+				.map(ModuleUtils::resolveModuleName)
+				.collect(Collectors.joining(", "));
+			Msg.error("JavaFX modules %s are not published for \"%s\", they were skipped", names, classifier);
+		}
+		Msg.info("Prefetched %d JavaFX artifacts of %s in %d ms (%d bytes fetched, %d bytes in total)",
+				 artifacts.size(), getClassifiers().get(), duration.toMillis(), fetchedBytes, totalBytes);
+	}
+	
+	/* -----------------------------------------------------------------------
+	 * Internal methods
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Returns the JavaFX files that are already in the gradle module cache
+	 *
+	 * @return the cached file paths
+	 */
+	private Set<Path> cachedFiles() {
+		Path groupDirectory = getModuleCacheDirectory().get().getAsFile().toPath().resolve(JFX_GROUP);
+		if (!Files.isDirectory(groupDirectory)) return Set.of();
+		
+		try (Stream<Path> files = Files.walk(groupDirectory)) {
+			return files.filter(Files::isRegularFile)
+				.map(Path::toAbsolutePath)
+				.collect(Collectors.toSet());
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+}
@@ -1,27 +1,34 @@
 package custom_jfx_plugin.task;
 
 import custom_jfx_plugin.configuration.JfxModule;
-import custom_jfx_plugin.configuration.JfxOptions;
+import custom_jfx_plugin.utils.JfxJar;
 import custom_jfx_plugin.utils.ModuleUtils;
 import org.gradle.api.DefaultTask;
-import org.gradle.api.Project;
-import org.gradle.api.file.FileCollection;
-import org.gradle.api.plugins.ApplicationPlugin;
-import org.gradle.api.plugins.AppliedPlugin;
-import org.gradle.api.tasks.JavaExec;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.RegularFile;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.provider.SetProperty;
+import org.gradle.api.specs.Spec;
+import org.gradle.api.tasks.Classpath;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFile;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
 import org.gradle.api.tasks.TaskAction;
-import org.javamodularity.moduleplugin.extensions.RunModuleOptions;
+import org.gradle.process.CommandLineArgumentProvider;
 import org.jetbrains.annotations.NotNull;
 import ushiosan.jvm_utilities.lang.Obj;
-import ushiosan.jvm_utilities.lang.collection.Collections;
-import ushiosan.jvm_utilities.system.Arch;
-import ushiosan.jvm_utilities.system.Platform;
 
-import javax.inject.Inject;
 import java.io.File;
-import java.util.Collection;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
-import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -32,14 +39,36 @@ public abstract class JfxRunConfigTask extends DefaultTask {
 	 * -----------------------------------------------------------------------*/
 	
 	/**
-	 * Gradle project
+	 * JavaFX modules added to the application
+	 *
+	 * @return the project modules
+	 */
+	@Input
+	public abstract SetProperty<JfxModule> getModules();
+	
+	/**
+	 * Platform classifier of the JavaFX jars added to the module path
+	 *
+	 * @return the target platform classifier
 	 */
-	private final Project project;
+	@Input
+	public abstract Property<String> getClassifier();
 	
 	/**
-	 * Java Executable task
+	 * Application runtime classpath
+	 *
+	 * @return the runtime classpath
+	 */
+	@Classpath
+	public abstract ConfigurableFileCollection getRuntimeClasspath();
+	
+	/**
+	 * JVM argument file used by the application run task
+	 *
+	 * @return the argument file
 	 */
-	private JavaExec javaExecTask;
+	@OutputFile
+	public abstract RegularFileProperty getArgumentsFile();
 	
 	/* -----------------------------------------------------------------------
 	 * Constructors
@@ -47,15 +76,9 @@ public abstract class JfxRunConfigTask extends DefaultTask {
 	
 	/**
 	 * Default constructor
-	 *
-	 * @param project gradle project
 	 */
-	@Inject
-	public JfxRunConfigTask(@NotNull Project project) {
-		this.project = project;
-		// Get application run task
-		project.getPluginManager()
-			.withPlugin(ApplicationPlugin.APPLICATION_PLUGIN_NAME, this::initializeApplicationPluginRunTask);
+	public JfxRunConfigTask() {
+		setDescription("Generates the JVM argument file with the JavaFX modules of the application run task.");
 	}
 	
 	/* -----------------------------------------------------------------------
@@ -67,50 +90,21 @@ public abstract class JfxRunConfigTask extends DefaultTask {
 	 */
 	@TaskAction
 	public void taskProcess() {
-		JfxOptions options = Objects.requireNonNull(project.getExtensions().findByType(JfxOptions.class));
-		// Check if java executable exists
-		if (Obj.isNull(javaExecTask)) return;
-		// Task configuration
-		Set<JfxModule> modules = ModuleUtils.resolveAndCleanModules(options.modules.getOrElseThrow());
-		Platform platform = options.platform.getOrElse(Platform.getRunningPlatform());
-		Arch arch = options.arch.getOrElse(Arch.getRunningArch());
-		RunModuleOptions moduleOpts = javaExecTask.getExtensions()
-			.findByType(RunModuleOptions.class);
-		
-		FileCollection classpathWithoutJfx = javaExecTask.getClasspath()
-			.filter(file -> filterClasspathWithoutJfx(file, modules));
-		FileCollection classpathJfxJars = javaExecTask.getClasspath()
-			.filter(file -> filterClasspathJfxJars(file, modules, platform, arch));
+		Set<JfxModule> modules = getModules().get();
+		List<File> modulePath = ModuleUtils.partitionClasspath(getRuntimeClasspath(), modules,
+															   getClassifier().get()).second;
+		List<String> arguments = List.of(
+			"--module-path",
+			quoteArgument(modulePath.stream().map(File::getAbsolutePath).collect(Collectors.joining(File.pathSeparator))),
+			"--add-modules",
+			modules.stream().map(ModuleUtils::resolveModuleName).collect(Collectors.joining(",")));
 		
-		// Check if module options exists
-		if (Obj.isNotNull(moduleOpts)) {
-			// Attach valid project classpath
-			javaExecTask.setClasspath(classpathWithoutJfx.plus(classpathJfxJars));
-			for (JfxModule module : modules) {
-				moduleOpts.getAddModules().add(ModuleUtils.resolveModuleName(module));
-			}
-		} else {
-			// Attach valid project classpath
-			javaExecTask.setClasspath(classpathWithoutJfx);
-			
-			// Generate JVM arguments
-			List<String> jfxArgs = Collections.listOf(
-				"--module-path",
-				classpathJfxJars.getAsPath());
-			List<String> jvmArgs = Collections.mutableListOf(
-				"--add-modules",
-				modules.stream().map(ModuleUtils::resolveModuleName).collect(Collectors.joining(",")));
-			
-			// Check if jvm args are defined
-			List<String> realJvmArgs = javaExecTask.getJvmArgs();
-			if (Obj.isNotNull(realJvmArgs)) {
-				jvmArgs.addAll(realJvmArgs);
-			}
-			// Attach modules
-			jvmArgs.addAll(jfxArgs);
-			
-			// Override jvm args in the run task
-			javaExecTask.setJvmArgs(jvmArgs);
+		Path argumentsFile = getArgumentsFile().get().getAsFile().toPath();
+		try {
+			Files.createDirectories(argumentsFile.getParent());
+			Files.write(argumentsFile, arguments, StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
 		}
 	}
 	
@@ -119,44 +113,109 @@ public abstract class JfxRunConfigTask extends DefaultTask {
 	 * -----------------------------------------------------------------------*/
 	
 	/**
-	 * Initialize application plugin configuration
+	 * Quote an argument of the argument file. Inside quotes the backslash is an escape character.
 	 *
-	 * @param plugin the application plugin instance
+	 * @param argument the argument to quote
+	 * @return the quoted argument
 	 */
-	private void initializeApplicationPluginRunTask(@NotNull AppliedPlugin plugin) {
-		// Find Run task
-		javaExecTask = Obj.cast(project.getTasks().findByName(ApplicationPlugin.TASK_RUN_NAME));
-		// Set task dependency
-		Obj.notNull(javaExecTask, it -> it.dependsOn(this));
+	private static @NotNull String quoteArgument(@NotNull String argument) {
+		return '"' + argument.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
 	}
 	
+	/* -----------------------------------------------------------------------
+	 * Internal types
+	 * -----------------------------------------------------------------------*/
+	
 	/**
-	 * Remove all JavaFx modules and libraries from classpath
-	 *
-	 * @param file    the file to filter
-	 * @param modules the javafx project modules
-	 * @return filter result
+	 * Classpath filter of the JavaFX jars. Each file name is parsed only once and the filter
+	 * only keeps plain values, so it can be stored in the configuration cache.
 	 */
-	private boolean filterClasspathWithoutJfx(@NotNull File file, @NotNull Collection<JfxModule> modules) {
-		return modules.stream()
-			.noneMatch(mod -> file.getName().contains(ModuleUtils.resolveArtifactName(mod)));
+	public static final class JfxJarFilter implements Spec<File> {
+		
+		/**
+		 * JavaFX project modules
+		 */
+		private final Set<JfxModule> modules;
+		
+		/**
+		 * Target platform classifier
+		 */
+		private final String classifier;
+		
+		/**
+		 * {@code true} to keep only the JavaFX jars or {@code false} to remove them
+		 */
+		private final boolean jfxJars;
+		
+		/**
+		 * Default constructor
+		 *
+		 * @param modules    the javafx project modules
+		 * @param classifier the target platform classifier
+		 * @param jfxJars    {@code true} to keep only the JavaFX jars or {@code false} to remove them
+		 */
+		public JfxJarFilter(@NotNull Set<JfxModule> modules, @NotNull String classifier, boolean jfxJars) {
+			this.modules = modules;
+			this.classifier = classifier;
+			this.jfxJars = jfxJars;
+		}
+		
+		/**
+		 * Check if the file is kept in the classpath
+		 *
+		 * @param file the file to check
+		 * @return filter result
+		 */
+		@Override
+		public boolean isSatisfiedBy(@NotNull File file) {
+			JfxJar jar = JfxJar.parse(file.getName());
+			if (Obj.isNull(jar)) return !jfxJars;
+			
+			return jfxJars ? jar.isModulePathJar(modules, classifier) && file.isFile() : !jar.belongsTo(modules);
+		}
+		
 	}
 	
 	/**
-	 * Filter only all JavaFx modules and libraries
-	 *
-	 * @param file     the file to check
-	 * @param modules  the javafx modules
-	 * @param platform the project platform
-	 * @param arch     the project architecture
-	 * @return filter result
+	 * Run task argument that loads the generated argument file
 	 */
-	private boolean filterClasspathJfxJars(@NotNull File file, @NotNull Collection<JfxModule> modules,
-		@NotNull Platform platform,
-		@NotNull Arch arch) {
-		return file.isFile() && modules.stream()
-			.anyMatch(mod -> ModuleUtils.compareJfxFile(file, mod, platform, arch) ||
-							 ModuleUtils.resolveModuleJarName(mod).contentEquals(file.getName()));
+	public static final class ArgumentsFileProvider implements CommandLineArgumentProvider {
+		
+		/**
+		 * Generated argument file
+		 */
+		private final Provider<RegularFile> argumentsFile;
+		
+		/**
+		 * Default constructor
+		 *
+		 * @param argumentsFile the generated argument file
+		 */
+		public ArgumentsFileProvider(@NotNull Provider<RegularFile> argumentsFile) {
+			this.argumentsFile = argumentsFile;
+		}
+		
+		/**
+		 * Returns the generated argument file
+		 *
+		 * @return the argument file
+		 */
+		@InputFile
+		@PathSensitive(PathSensitivity.NONE)
+		public Provider<RegularFile> getArgumentsFile() {
+			return argumentsFile;
+		}
+		
+		/**
+		 * Returns the run task arguments
+		 *
+		 * @return the run task arguments
+		 */
+		@Override
+		public Iterable<String> asArguments() {
+			return List.of("@" + argumentsFile.get().getAsFile().getAbsolutePath());
+		}
+		
 	}
 	
 }
@@ -0,0 +1,176 @@
+package custom_jfx_plugin.utils;
+
+import custom_jfx_plugin.configuration.JfxModule;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ushiosan.jvm_utilities.lang.Obj;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public final class JfxJar {
+	
+	/* -----------------------------------------------------------------------
+	 * Properties
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Jar file extension
+	 */
+	private static final String JAR_EXTENSION = ".jar";
+	
+	/**
+	 * Modules by maven artifact name ({@code javafx-base})
+	 */
+	private static final Map<String, JfxModule> ARTIFACT_MODULES = moduleTable(ModuleUtils::resolveArtifactName);
+	
+	/**
+	 * Modules by SDK jar name ({@code javafx.base.jar})
+	 */
+	private static final Map<String, JfxModule> SDK_JAR_MODULES = moduleTable(ModuleUtils::resolveModuleJarName);
+	
+	/**
+	 * Platform classifiers, the longest first ({@code linux-aarch64} before {@code linux})
+	 */
+	private static final List<String> CLASSIFIERS = ModuleUtils.getAllPlatformClassifiers().stream()
+		.sorted(Comparator.comparingInt(String::length).reversed())
+		.collect(Collectors.toUnmodifiableList());
+	
+	/**
+	 * Jar module
+	 */
+	public final JfxModule module;
+	
+	/**
+	 * Maven artifact version or {@code null} if the jar is part of a local SDK
+	 */
+	public final String version;
+	
+	/**
+	 * Maven artifact classifier or {@code null} if the jar doesn't have classifier
+	 * (or it is part of a local SDK)
+	 */
+	public final String classifier;
+	
+	/* -----------------------------------------------------------------------
+	 * Constructors
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Default constructor
+	 *
+	 * @param module     jar module
+	 * @param version    artifact version
+	 * @param classifier artifact classifier
+	 */
+	private JfxJar(@NotNull JfxModule module, @Nullable String version, @Nullable String classifier) {
+		this.module = module;
+		this.version = version;
+		this.classifier = classifier;
+	}
+	
+	/* -----------------------------------------------------------------------
+	 * Methods
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Parse the name of a jar file. Maven artifacts ({@code javafx-base-21.0.1-linux.jar})
+	 * and local SDK jars ({@code javafx.base.jar}) are supported.
+	 *
+	 * @param fileName the jar file name
+	 * @return the jar information or {@code null} if the file is not a JavaFX jar
+	 */
+	public static @Nullable JfxJar parse(@NotNull String fileName) {
+		JfxModule sdkModule = SDK_JAR_MODULES.get(fileName);
+		if (Obj.isNotNull(sdkModule)) return new JfxJar(sdkModule, null, null);
+		if (!fileName.endsWith(JAR_EXTENSION)) return null;
+		
+		// <artifact>-<version>[-<classifier>].jar, the artifact name has a single separator
+		int artifactEnd = fileName.indexOf('-', fileName.indexOf('-') + 1);
+		if (artifactEnd < 0) return null;
+		JfxModule module = ARTIFACT_MODULES.get(fileName.substring(0, artifactEnd));
+		if (Obj.isNull(module)) return null;
+		
+		// Versions can contain separators too (22-ea+16), so the classifier is searched at the end
+		String element = fileName.substring(artifactEnd + 1, fileName.length() - JAR_EXTENSION.length());
+		String classifier = null;
+		for (String it : CLASSIFIERS) {
+			if (element.length() > it.length() + 1 && element.endsWith(it) &&
+				element.charAt(element.length() - it.length() - 1) == '-') {
+				classifier = it;
+				element = element.substring(0, element.length() - it.length() - 1);
+				break;
+			}
+		}
+		return element.isEmpty() ? null : new JfxJar(module, element, classifier);
+	}
+	
+	/**
+	 * Check if the jar is part of a local SDK
+	 *
+	 * @return {@code true} if the jar is part of a local SDK or {@code false} otherwise
+	 */
+	public boolean isSdkJar() {
+		return Obj.isNull(version);
+	}
+	
+	/**
+	 * Check if the jar is one of the modules
+	 *
+	 * @param modules the project modules
+	 * @return {@code true} if the jar is one of the modules or {@code false} otherwise
+	 */
+	public boolean belongsTo(@NotNull Collection<JfxModule> modules) {
+		return modules.contains(module);
+	}
+	
+	/**
+	 * Check if the jar is one of the modules of the target platform. SDK jars are always
+	 * of the target platform.
+	 *
+	 * @param modules    the project modules
+	 * @param classifier the target platform classifier
+	 * @return {@code true} if the jar must be in the module path or {@code false} otherwise
+	 */
+	public boolean isModulePathJar(@NotNull Collection<JfxModule> modules, @NotNull String classifier) {
+		return belongsTo(modules) && (isSdkJar() || classifier.equals(this.classifier));
+	}
+	
+	/**
+	 * Returns a string representation of the object.
+	 *
+	 * @return a string representation of the object.
+	 */
+	@Override
+	public String toString() {
+		if (isSdkJar()) return ModuleUtils.resolveModuleJarName(module);
+		
+		String artifact = ModuleUtils.resolveArtifactName(module) + ":" + version;
+		return Obj.isNull(classifier) ? artifact : artifact + ":" + classifier;
+	}
+	
+	/* -----------------------------------------------------------------------
+	 * Internal methods
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Create the lookup table of all modules
+	 *
+	 * @param nameGenerator the name of each module
+	 * @return the modules by name
+	 */
+	private static @NotNull Map<String, JfxModule> moduleTable(@NotNull Function<JfxModule, String> nameGenerator) {
+		Map<String, JfxModule> table = new HashMap<>();
+		for (JfxModule module : JfxModule.values()) {
+			if (module == JfxModule.ALL) continue;
+			table.put(nameGenerator.apply(module), module);
+		}
+		return Map.copyOf(table);
+	}
+	
+}
@@ -2,18 +2,23 @@ package custom_jfx_plugin.utils;
 
 import custom_jfx_plugin.configuration.JfxModule;
 import org.gradle.api.artifacts.Dependency;
+import org.gradle.api.artifacts.FileCollectionDependency;
 import org.jetbrains.annotations.NotNull;
+import ushiosan.jvm_utilities.lang.Obj;
 import ushiosan.jvm_utilities.lang.collection.Collections;
 import ushiosan.jvm_utilities.lang.collection.elements.Pair;
 import ushiosan.jvm_utilities.system.Arch;
 import ushiosan.jvm_utilities.system.Platform;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Locale;
-import java.util.Objects;
+import java.util.Map;
 import java.util.Set;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 public final class ModuleUtils {
@@ -55,24 +60,16 @@ public final class ModuleUtils {
 	 * Resolve all valid modules
 	 *
 	 * @param modules the modules to inspect
-	 * @return a set with all modules
+	 * @return a set with all modules and its dependencies in topological order
 	 */
 	public static @NotNull Set<JfxModule> resolveAndCleanModules(@NotNull Collection<JfxModule> modules) {
-		final Set<JfxModule> moduleResult = Collections.mutableSetOf();
+		EnumSet<JfxModule> moduleResult = EnumSet.noneOf(JfxModule.class);
 		
-		// Iterate all elements
+		// Insert all modules and dependencies (the precomputed closures)
 		for (JfxModule mod : modules) {
-			// Ignore All module
-			if (mod == JfxModule.ALL) {
-				moduleResult.addAll(Collections.listOf(mod.dependencies()));
-				continue;
-			}
-			// Insert all modules and dependencies
-			moduleResult.add(mod);
-			moduleResult.addAll(Collections.listOf(mod.dependencies()));
+			moduleResult.addAll(mod.closure());
 		}
-		
-		return Collections.setOf(moduleResult);
+		return java.util.Collections.unmodifiableSet(moduleResult);
 	}
 	
 	/**
@@ -119,7 +116,7 @@ public final class ModuleUtils {
 			.map(ModuleUtils::resolveArtifact)
 			.map(it -> String.format(it, version))
 			.map(String::trim)
-			.collect(Collectors.toUnmodifiableSet());
+			.collect(Collectors.toCollection(LinkedHashSet::new));
 	}
 	
 	/**
@@ -142,6 +139,43 @@ public final class ModuleUtils {
 		return String.format(ARTIFACT_PREFIX_FORMAT, resolveArtifactName(module), "%s");
 	}
 	
+	/**
+	 * Resolve the module artifact without version. The version is completed when the
+	 * dependency is resolved.
+	 *
+	 * @param module     the module to resolve
+	 * @param classifier the platform classifier
+	 * @return the artifact map notation
+	 */
+	public static @NotNull Map<String, String> resolveVersionlessArtifact(@NotNull JfxModule module,
+		@NotNull String classifier) {
+		return Map.of("group", JAVAFX_GROUP_ID,
+					  "name", resolveArtifactName(module),
+					  "classifier", classifier);
+	}
+	
+	/**
+	 * Resolve the artifact used to resolve the version of the whole JavaFX release line.
+	 * All JavaFX modules are released with the same version, so all modules (and its
+	 * dependencies) are resolved together: the version must be published for all of
+	 * them with the platform classifier ({@code org.openjfx:javafx-base,javafx-graphics:<version>:<classifier>}).
+	 *
+	 * @param version    the JavaFX version or special version configuration
+	 * @param modules    the required modules
+	 * @param classifier the platform classifier
+	 * @return a formatted artifact
+	 */
+	public static @NotNull String resolveReleaseArtifact(@NotNull String version, @NotNull Collection<JfxModule> modules,
+		@NotNull String classifier) {
+		// Sorted names, so the same modules always generate the same artifact
+		String artifacts = resolveAndCleanModules(modules).stream()
+			.map(ModuleUtils::resolveArtifactName)
+			.sorted()
+			.collect(Collectors.joining(","));
+		
+		return String.format(ARTIFACT_PREFIX_FORMAT, artifacts, version) + ":" + classifier;
+	}
+	
 	/**
 	 * Returns the artifact configuration depending on the platform and architecture
 	 *
@@ -165,49 +199,69 @@ public final class ModuleUtils {
 	}
 	
 	/**
-	 * Check if dependency is a javafx dependency
+	 * Returns the artifact configuration of all supported platforms and architectures
+	 *
+	 * @return all platform classifiers
+	 */
+	public static @NotNull Set<String> getAllPlatformClassifiers() {
+		Set<String> classifiers = new LinkedHashSet<>();
+		for (Platform platform : List.of(Platform.WINDOWS, Platform.MACOS, Platform.LINUX)) {
+			for (Arch arch : Arch.values()) {
+				classifiers.add(getPlatformArtifactConfig(platform, arch).first);
+			}
+		}
+		return classifiers;
+	}
+	
+	/**
+	 * Check if dependency is a javafx dependency (maven artifacts or local SDK jars)
 	 *
 	 * @param dependency the dependency to check
 	 * @return {@code true} if dependency is a javafx element or {@code false} otherwise
 	 */
 	public static boolean checkJavaFxDependency(@NotNull Dependency dependency) {
-		return Objects.requireNonNull(dependency.getGroup()).contentEquals(JAVAFX_GROUP_ID);
+		if (dependency instanceof FileCollectionDependency) {
+			Set<File> files = ((FileCollectionDependency) dependency).getFiles().getFiles();
+			return !files.isEmpty() && files.stream().allMatch(ModuleUtils::compareSdkJfxFile);
+		}
+		return JAVAFX_GROUP_ID.equals(dependency.getGroup());
 	}
 	
 	/**
-	 * Check if classpath file is a valid jfx jar file
+	 * Check if file is a jar of a local JavaFX SDK ({@code lib/javafx.base.jar})
 	 *
-	 * @param file     the file to inspect
-	 * @param module   the module to check
-	 * @param platform target platform
-	 * @param arch     target architecture
-	 * @return {@code true} if the file is a valid jfx file or {@code false} otherwise
-	 */
-	public static boolean compareJfxFile(@NotNull File file, @NotNull JfxModule module, @NotNull Platform platform,
-		@NotNull Arch arch) {
-		// Temporal variables
-		String filename = file.getName();
-		Pair<String, String> platConfig = getPlatformArtifactConfig(platform, arch);
-		Pattern pattern = Pattern.compile(String.format("%s-.+-%s\\.jar", resolveArtifactName(module), platConfig.first));
-		
-		// Check result
-		return pattern.matcher(filename).matches();
+	 * @param file the file to inspect
+	 * @return {@code true} if the file is a JavaFX SDK jar or {@code false} otherwise
+	 */
+	public static boolean compareSdkJfxFile(@NotNull File file) {
+		JfxJar jar = JfxJar.parse(file.getName());
+		return Obj.isNotNull(jar) && jar.isSdkJar();
 	}
 	
 	/**
-	 * Check if classpath file is a valid jfx jar file
+	 * Split the classpath in a single pass: the files that are not jars of the modules, and the
+	 * jars of the modules for the target platform (the module path). The jars of the modules
+	 * for other platforms are not included in any of them.
 	 *
-	 * @param file the file to inspect
-	 * @return {@code true} if the file is a valid jfx file or {@code false} otherwise
+	 * @param classpath  the classpath files
+	 * @param modules    the project modules
+	 * @param classifier the target platform classifier
+	 * @return the classpath without the modules and the module path
 	 */
-	public static boolean compareAnyJfxFile(@NotNull File file) {
-		// Temporal variables
-		String filename = file.getName();
-		String nameFormat = String.format(ARTIFACT_NAME_FORMAT, "");
-		Pattern pattern = Pattern.compile(String.format("%s.+\\.jar", nameFormat));
+	public static @NotNull Pair<List<File>, List<File>> partitionClasspath(@NotNull Iterable<File> classpath,
+		@NotNull Collection<JfxModule> modules, @NotNull String classifier) {
+		List<File> classpathWithoutJfx = new ArrayList<>();
+		List<File> modulePath = new ArrayList<>();
 		
-		// Check result
-		return pattern.matcher(filename).matches();
+		for (File file : classpath) {
+			JfxJar jar = JfxJar.parse(file.getName());
+			if (Obj.isNull(jar) || !jar.belongsTo(modules)) {
+				classpathWithoutJfx.add(file);
+			} else if (jar.isModulePathJar(modules, classifier) && file.isFile()) {
+				modulePath.add(file);
+			}
+		}
+		return Pair.of(classpathWithoutJfx, modulePath);
 	}
 	
 	/* -----------------------------------------------------------------------
@@ -3,14 +3,26 @@
  */
 package ushiosan.custom.jfx;
 
+import custom_jfx_plugin.configuration.JfxModule;
 import custom_jfx_plugin.configuration.JfxOptions;
+import custom_jfx_plugin.utils.ModuleUtils;
 import org.gradle.api.Project;
+import org.gradle.api.artifacts.Dependency;
+import org.gradle.api.internal.artifacts.configurations.ConfigurationInternal;
+import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.testfixtures.ProjectBuilder;
 import org.junit.jupiter.api.Test;
 import ushiosan.jvm_utilities.system.Platform;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 /**
- * A simple unit test for the 'ushiosan.custom.jfx.greeting' plugin.
+ * A simple unit test for the 'io.github.ushiosan23.custom_jfx_plugin' plugin.
  */
 class CustomJfxPluginPluginTest {
 	
@@ -18,14 +30,171 @@ class CustomJfxPluginPluginTest {
 	void pluginRegistersATask() {
 		// Create a test project and apply the plugin
 		Project project = ProjectBuilder.builder().build();
-		project.getPlugins().apply("ushiosan.custom.jfx.plugin");
+		project.getPlugins().apply("io.github.ushiosan23.custom_jfx_plugin");
 		
 		project.getExtensions().configure(JfxOptions.class, opts -> {
 			opts.platform.set(Platform.LINUX);
 		});
 		
 		// Verify the result
-		// assertNotNull(project.getTasks().findByName("greeting"));
+		assertNotNull(project.getTasks().findByName("customJfxRunConfig"));
+	}
+	
+	@Test
+	void applyChangesOnce() {
+		Project project = ProjectBuilder.builder().build();
+		project.getPlugins().apply("java");
+		project.getPlugins().apply("io.github.ushiosan23.custom_jfx_plugin");
+		
+		project.getExtensions().configure(JfxOptions.class, opts -> {
+			opts.modules.set(List.of(JfxModule.BASE));
+			opts.version.set("21.0.1");
+			opts.platform.set(Platform.LINUX);
+			opts.modules.set(List.of(JfxModule.GRAPHICS));
+		});
+		// Nothing is attached while the build script is evaluated
+		assertEquals(0, javaFxDependencies(project, "implementation"));
+		
+		((ProjectInternal) project).evaluate();
+		assertEquals(2, javaFxDependencies(project, "implementation"));
+		// The test configuration extends the main one
+		assertEquals(0, javaFxDependencies(project, "testImplementation"));
+	}
+	
+	@Test
+	void removeModulesAfterEvaluation() {
+		Project project = evaluatedProject(List.of(JfxModule.CONTROLS));
+		assertEquals(3, javaFxDependencies(project, "implementation"));
+		
+		project.getExtensions().getByType(JfxOptions.class).modules.set(List.of(JfxModule.BASE));
+		resolveDependencies(project, "implementation");
+		assertEquals(List.of("javafx-base"), javaFxDependencyNames(project, "implementation"));
+	}
+	
+	@Test
+	void keepUnchangedDependencies() {
+		Project project = evaluatedProject(List.of(JfxModule.GRAPHICS));
+		List<Dependency> previous = javaFxDependencyList(project, "implementation");
+		
+		project.getExtensions().getByType(JfxOptions.class).modules.set(List.of(JfxModule.CONTROLS));
+		resolveDependencies(project, "implementation");
+		List<Dependency> current = javaFxDependencyList(project, "implementation");
+		// The same instances are kept, only the new module is attached
+		assertEquals(3, current.size());
+		for (Dependency dependency : previous) {
+			assertTrue(current.stream().anyMatch(it -> it == dependency));
+		}
+	}
+	
+	@Test
+	void replaceDependenciesOfOtherVersion() {
+		Project project = evaluatedProject(List.of(JfxModule.BASE));
+		resolveDependencies(project, "implementation");
+		assertEquals(List.of("21.0.1"), javaFxDependencyVersions(project, "implementation"));
+		
+		project.getExtensions().getByType(JfxOptions.class).version.set("20.0.2");
+		resolveDependencies(project, "implementation");
+		assertEquals(List.of("20.0.2"), javaFxDependencyVersions(project, "implementation"));
+	}
+	
+	@Test
+	void switchDependencyConfiguration() {
+		Project project = evaluatedProject(List.of(JfxModule.GRAPHICS));
+		assertEquals(2, javaFxDependencies(project, "implementation"));
+		
+		project.getExtensions().getByType(JfxOptions.class).dependencyConfiguration.set("compileOnly");
+		resolveDependencies(project, "compileOnly");
+		assertEquals(0, javaFxDependencies(project, "implementation"));
+		assertEquals(2, javaFxDependencies(project, "compileOnly"));
+		// The test configuration doesn't extend compileOnly
+		assertEquals(2, javaFxDependencies(project, "testImplementation"));
+	}
+	
+	/* -----------------------------------------------------------------------
+	 * Internal methods
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Count the JavaFX dependencies of a configuration
+	 *
+	 * @param project       the test project
+	 * @param configuration the configuration name
+	 * @return the number of JavaFX dependencies
+	 */
+	private static long javaFxDependencies(Project project, String configuration) {
+		return javaFxDependencyList(project, configuration).size();
+	}
+	
+	/**
+	 * Returns the JavaFX dependencies of a configuration
+	 *
+	 * @param project       the test project
+	 * @param configuration the configuration name
+	 * @return the JavaFX dependency instances
+	 */
+	private static List<Dependency> javaFxDependencyList(Project project, String configuration) {
+		return project.getConfigurations().getByName(configuration).getDependencies().stream()
+			.filter(ModuleUtils::checkJavaFxDependency)
+			.collect(Collectors.toList());
+	}
+	
+	/**
+	 * Returns the sorted artifact names of the JavaFX dependencies of a configuration
+	 *
+	 * @param project       the test project
+	 * @param configuration the configuration name
+	 * @return the artifact names
+	 */
+	private static List<String> javaFxDependencyNames(Project project, String configuration) {
+		return javaFxDependencyList(project, configuration).stream()
+			.map(Dependency::getName)
+			.sorted()
+			.collect(Collectors.toList());
+	}
+	
+	/**
+	 * Returns the distinct versions of the JavaFX dependencies of a configuration
+	 *
+	 * @param project       the test project
+	 * @param configuration the configuration name
+	 * @return the dependency versions
+	 */
+	private static List<String> javaFxDependencyVersions(Project project, String configuration) {
+		return javaFxDependencyList(project, configuration).stream()
+			.map(Dependency::getVersion)
+			.distinct()
+			.collect(Collectors.toList());
+	}
+	
+	/**
+	 * Create a linux project with a static JavaFX version and evaluate its build script
+	 *
+	 * @param modules the project modules
+	 * @return the evaluated project
+	 */
+	private static Project evaluatedProject(List<JfxModule> modules) {
+		Project project = ProjectBuilder.builder().build();
+		project.getPlugins().apply("java");
+		project.getPlugins().apply("io.github.ushiosan23.custom_jfx_plugin");
+		
+		project.getExtensions().configure(JfxOptions.class, opts -> {
+			opts.version.set("21.0.1");
+			opts.platform.set(Platform.LINUX);
+			opts.modules.set(modules);
+		});
+		((ProjectInternal) project).evaluate();
+		return project;
+	}
+	
+	/**
+	 * Run the actions that gradle executes before the configuration is resolved, so the
+	 * changes made after the evaluation are applied without downloading anything
+	 *
+	 * @param project       the test project
+	 * @param configuration the configuration name
+	 */
+	private static void resolveDependencies(Project project, String configuration) {
+		((ConfigurationInternal) project.getConfigurations().getByName(configuration)).runDependencyActions();
 	}
 	
 }
@@ -0,0 +1,159 @@
+package ushiosan.custom.jfx;
+
+import custom_jfx_plugin.dependency.base.DependencyDiskCache;
+import custom_jfx_plugin.dependency.base.HttpOptions;
+import custom_jfx_plugin.dependency.maven.MavenResolver;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DependencyDiskCacheTest {
+	
+	/**
+	 * Cache file of the stored resolutions
+	 */
+	private static final String CACHE_FILE = "resolutions.properties";
+	
+	/**
+	 * Cache key used by the tests
+	 */
+	private static final String KEY = DependencyDiskCache.key(
+		DependencyDiskCache.scope("search", List.of(URI.create("https://search.maven.org"))), "org.openjfx",
+		"javafx-base", "latest:linux");
+	
+	@Test
+	void expireResolutions(@TempDir File directory) throws InterruptedException {
+		DependencyDiskCache cache = new DependencyDiskCache(directory, Duration.ofMillis(100));
+		cache.store(KEY, "21.0.1");
+		assertEquals(Optional.of("21.0.1"), cache.find(KEY));
+		
+		Thread.sleep(150);
+		assertEquals(Optional.empty(), cache.find(KEY));
+		// Expired resolutions are still used without network
+		assertEquals(Optional.of("21.0.1"), cache.find(KEY, true));
+	}
+	
+	@Test
+	void shareResolutionsBetweenResolvers(@TempDir File directory) throws IOException {
+		String configuration = MavenResolverTest.MODULES + ":#latest#:linux";
+		try (StubRepositoryServer server = new StubRepositoryServer().search(MavenResolverTest.SEARCH_RECORDING)) {
+			try (MavenResolver first = MavenResolverTest.resolver(server, HttpOptions.DEFAULT, cache(directory))) {
+				assertEquals(MavenResolverTest.MODULES + ":21.0.1:linux", first.resolveDependency(configuration, true));
+			}
+			int requests = server.requests();
+			
+			// A new resolver (like other gradle daemon) reads the stored resolution
+			try (MavenResolver second = MavenResolverTest.resolver(server, HttpOptions.DEFAULT, cache(directory))) {
+				assertEquals(MavenResolverTest.MODULES + ":21.0.1:linux", second.resolveDependency(configuration, true));
+			}
+			assertEquals(requests, server.requests());
+		}
+	}
+	
+	@Test
+	void separateResolverScopes(@TempDir File directory) throws IOException {
+		String configuration = MavenResolverTest.MODULES + ":#latest#:linux";
+		try (StubRepositoryServer first = new StubRepositoryServer().search(MavenResolverTest.SEARCH_RECORDING);
+			 StubRepositoryServer second = new StubRepositoryServer().search(MavenResolverTest.SEARCH_RECORDING)) {
+			try (MavenResolver resolver = MavenResolverTest.resolver(first, HttpOptions.DEFAULT, cache(directory))) {
+				resolver.resolveDependency(configuration, true);
+			}
+			
+			// Other search service doesn't use the stored resolution
+			try (MavenResolver resolver = MavenResolverTest.resolver(second, HttpOptions.DEFAULT, cache(directory))) {
+				assertEquals(MavenResolverTest.MODULES + ":21.0.1:linux", resolver.resolveDependency(configuration, true));
+			}
+			assertTrue(second.requests() > 0);
+			
+			// The backends never share resolutions
+			List<URI> locations = List.of(first.repositoryLocation());
+			assertNotEquals(DependencyDiskCache.scope("search", locations),
+							DependencyDiskCache.scope("metadata", locations));
+		}
+	}
+	
+	@Test
+	void storeHttpValidators(@TempDir File directory) {
+		DependencyDiskCache cache = cache(directory);
+		cache.store(KEY, new DependencyDiskCache.Entry("21.0.1", "\"5d8a\"", "Tue, 14 Nov 2023 10:00:00 GMT"));
+		
+		Properties stored = storedResolutions(directory);
+		assertEquals("\"5d8a\"", stored.getProperty(KEY + ".etag"));
+		assertEquals("Tue, 14 Nov 2023 10:00:00 GMT", stored.getProperty(KEY + ".lastModified"));
+		
+		DependencyDiskCache.Entry entry = cache(directory).findEntry(KEY).orElseThrow();
+		assertEquals("21.0.1", entry.version);
+		assertEquals("\"5d8a\"", entry.etag);
+		assertTrue(entry.hasValidators());
+		
+		// A resolution without validators removes the previous validators
+		cache.store(KEY, "21.0.2");
+		stored = storedResolutions(directory);
+		assertFalse(stored.containsKey(KEY + ".etag"));
+		assertFalse(stored.containsKey(KEY + ".lastModified"));
+		assertFalse(cache.findEntry(KEY).orElseThrow().hasValidators());
+	}
+	
+	/* -----------------------------------------------------------------------
+	 * Internal methods
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Create a persistent cache with the default expiration time
+	 *
+	 * @param directory the cache directory
+	 * @return the cache instance
+	 */
+	static DependencyDiskCache cache(File directory) {
+		return new DependencyDiskCache(directory, DependencyDiskCache.DEFAULT_TTL);
+	}
+	
+	/**
+	 * Read the content of the cache file
+	 *
+	 * @param directory the cache directory
+	 * @return the stored resolutions
+	 */
+	static Properties storedResolutions(File directory) {
+		Properties properties = new Properties();
+		Path file = directory.toPath().resolve(CACHE_FILE);
+		if (!Files.isRegularFile(file)) return properties;
+		
+		try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			properties.load(reader);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return properties;
+	}
+	
+	/**
+	 * Returns the time when a resolution was stored
+	 *
+	 * @param directory the cache directory
+	 * @param key       the cache key
+	 * @return the resolution timestamp
+	 */
+	static long storedTimestamp(File directory, String key) {
+		String value = storedResolutions(directory).getProperty(key);
+		return Long.parseLong(value.substring(value.lastIndexOf('|') + 1));
+	}
+	
+}
@@ -0,0 +1,92 @@
+package ushiosan.custom.jfx;
+
+import custom_jfx_plugin.configuration.JfxModule;
+import custom_jfx_plugin.utils.JfxJar;
+import custom_jfx_plugin.utils.ModuleUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ushiosan.jvm_utilities.lang.collection.elements.Pair;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JfxJarTest {
+	
+	@Test
+	void parseMavenArtifacts() {
+		JfxJar jar = JfxJar.parse("javafx-graphics-21.0.1-linux-aarch64.jar");
+		assertNotNull(jar);
+		assertEquals(JfxModule.GRAPHICS, jar.module);
+		assertEquals("21.0.1", jar.version);
+		assertEquals("linux-aarch64", jar.classifier);
+		
+		jar = JfxJar.parse("javafx-base-22-ea+16-mac.jar");
+		assertNotNull(jar);
+		assertEquals("22-ea+16", jar.version);
+		assertEquals("mac", jar.classifier);
+		
+		jar = JfxJar.parse("javafx-controls-21.0.1.jar");
+		assertNotNull(jar);
+		assertEquals("21.0.1", jar.version);
+		assertNull(jar.classifier);
+	}
+	
+	@Test
+	void parseSdkJars() {
+		JfxJar jar = JfxJar.parse("javafx.web.jar");
+		assertNotNull(jar);
+		assertEquals(JfxModule.WEB, jar.module);
+		assertTrue(jar.isSdkJar());
+	}
+	
+	@Test
+	void rejectOtherJars() {
+		assertNull(JfxJar.parse("gson-2.10.1.jar"));
+		assertNull(JfxJar.parse("javafx-unknown-21.jar"));
+		assertNull(JfxJar.parse("javafx-base-linux.txt"));
+		assertNull(JfxJar.parse("javafx-base.jar"));
+	}
+	
+	@Test
+	void partitionClasspath(@TempDir Path directory) throws IOException {
+		List<File> classpath = jars(directory, "gson-2.10.1.jar", "javafx-base-21.0.1.jar",
+									"javafx-base-21.0.1-linux.jar", "javafx-base-21.0.1-mac.jar",
+									"javafx-graphics-21.0.1-linux.jar", "javafx-web-21.0.1-linux.jar");
+		Pair<List<File>, List<File>> partition = ModuleUtils.partitionClasspath(
+			classpath, Set.of(JfxModule.BASE, JfxModule.GRAPHICS), "linux");
+		
+		assertEquals(List.of(classpath.get(0), classpath.get(5)), partition.first);
+		assertEquals(List.of(classpath.get(2), classpath.get(4)), partition.second);
+	}
+	
+	/* -----------------------------------------------------------------------
+	 * Internal methods
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Create empty jar files
+	 *
+	 * @param directory the jars directory
+	 * @param names     the jar names
+	 * @return the jar files
+	 * @throws IOException error if the files cannot be written
+	 */
+	private static List<File> jars(Path directory, String... names) throws IOException {
+		List<File> result = new ArrayList<>();
+		for (String name : names) {
+			result.add(Files.write(directory.resolve(name), new byte[0]).toFile());
+		}
+		return result;
+	}
+	
+}
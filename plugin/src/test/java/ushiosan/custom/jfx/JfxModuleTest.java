@@ -0,0 +1,30 @@
+package ushiosan.custom.jfx;
+
+import custom_jfx_plugin.configuration.JfxModule;
+import custom_jfx_plugin.utils.ModuleUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class JfxModuleTest {
+	
+	@Test
+	void resolveTransitiveDependencies() {
+		assertEquals(EnumSet.of(JfxModule.BASE, JfxModule.GRAPHICS, JfxModule.CONTROLS, JfxModule.MEDIA, JfxModule.WEB),
+					 JfxModule.WEB.closure());
+		assertEquals(EnumSet.complementOf(EnumSet.of(JfxModule.ALL)), JfxModule.ALL.closure());
+	}
+	
+	@Test
+	void resolveModulesInTopologicalOrder() {
+		List<JfxModule> modules = new ArrayList<>(ModuleUtils.resolveAndCleanModules(List.of(JfxModule.WEB,
+																							 JfxModule.FXML)));
+		assertEquals(List.of(JfxModule.BASE, JfxModule.GRAPHICS, JfxModule.CONTROLS, JfxModule.FXML,
+							 JfxModule.MEDIA, JfxModule.WEB), modules);
+	}
+	
+}
@@ -0,0 +1,74 @@
+package ushiosan.custom.jfx;
+
+import custom_jfx_plugin.configuration.JfxModule;
+import custom_jfx_plugin.configuration.JfxSdk;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JfxSdkTest {
+	
+	@Test
+	void loadReleaseInformation(@TempDir Path directory) throws IOException {
+		sdkDirectory(directory, "JAVAFX_VERSION=\"21.0.1\"\nOS_NAME=\"Mac OS X\"\nOS_ARCH=\"aarch64\"\n",
+					 "javafx.base.jar", "javafx.graphics.jar", "javafx.controls.jar");
+		JfxSdk sdk = JfxSdk.load(directory.toFile());
+		
+		assertEquals("21.0.1", sdk.version);
+		assertEquals("mac-aarch64", sdk.classifier);
+		assertEquals(List.of(jar(directory, "javafx.base.jar"), jar(directory, "javafx.controls.jar"),
+							 jar(directory, "javafx.graphics.jar")), sdk.moduleJars(List.of(JfxModule.CONTROLS)));
+	}
+	
+	@Test
+	void rejectIncompleteSdk(@TempDir Path directory) throws IOException {
+		sdkDirectory(directory, "JAVAFX_VERSION=\"17.0.2\"\nOS_NAME=\"Linux\"\nOS_ARCH=\"amd64\"\n",
+					 "javafx.base.jar");
+		JfxSdk sdk = JfxSdk.load(directory.toFile());
+		
+		assertEquals("linux", sdk.classifier);
+		assertThrows(IllegalStateException.class, () -> sdk.moduleJars(List.of(JfxModule.GRAPHICS)));
+		assertThrows(IllegalStateException.class, () -> JfxSdk.load(directory.resolve("lib").toFile()));
+	}
+	
+	/* -----------------------------------------------------------------------
+	 * Internal methods
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Fill an unpacked SDK directory
+	 *
+	 * @param directory the SDK directory
+	 * @param release   the release file content
+	 * @param jars      the jars of the lib directory
+	 * @throws IOException error if the files cannot be written
+	 */
+	private static void sdkDirectory(Path directory, String release, String... jars) throws IOException {
+		Files.writeString(directory.resolve("release"), release, StandardCharsets.UTF_8);
+		Files.createDirectories(directory.resolve("lib"));
+		for (String jar : jars) {
+			Files.write(directory.resolve("lib").resolve(jar), new byte[0]);
+		}
+	}
+	
+	/**
+	 * Returns a jar of the SDK lib directory
+	 *
+	 * @param directory the SDK directory
+	 * @param name      the jar name
+	 * @return the jar file
+	 */
+	private static File jar(Path directory, String name) {
+		return directory.resolve("lib").resolve(name).toFile();
+	}
+	
+}
@@ -0,0 +1,26 @@
+package ushiosan.custom.jfx;
+
+import custom_jfx_plugin.configuration.JfxTarget;
+import org.junit.jupiter.api.Test;
+import ushiosan.jvm_utilities.system.Arch;
+import ushiosan.jvm_utilities.system.Platform;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class JfxTargetTest {
+	
+	@Test
+	void generateConfigurationName() {
+		assertEquals("customJfxMacAarch64", JfxTarget.of(Platform.MACOS, Arch.ARM).configurationName());
+		assertEquals("customJfxLinuxAarch64", JfxTarget.of(Platform.LINUX, Arch.ARM).configurationName());
+		assertEquals("customJfxWin", JfxTarget.of(Platform.WINDOWS, Arch.ARM).configurationName());
+	}
+	
+	@Test
+	void compareTargets() {
+		assertEquals(JfxTarget.of(Platform.MACOS, Arch.ARM), JfxTarget.of(Platform.MACOS, Arch.ARM));
+		assertEquals(JfxTarget.of(Platform.MACOS, Arch.ARM).hashCode(),
+					 JfxTarget.of(Platform.MACOS, Arch.ARM).hashCode());
+	}
+	
+}
@@ -0,0 +1,240 @@
+package ushiosan.custom.jfx;
+
+import custom_jfx_plugin.dependency.base.DependencyDiskCache;
+import custom_jfx_plugin.dependency.base.HttpOptions;
+import custom_jfx_plugin.dependency.base.SpecialVersionResolver;
+import custom_jfx_plugin.dependency.base.VersionIndex;
+import custom_jfx_plugin.dependency.maven.MavenResolver;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MavenResolverTest {
+	
+	/**
+	 * Recorded search response of the base, graphics and controls modules
+	 */
+	static final String SEARCH_RECORDING = "/stub/search-javafx.json";
+	
+	/**
+	 * Modules of the recorded search response
+	 */
+	static final String MODULES = "org.openjfx:javafx-base,javafx-controls,javafx-graphics";
+	
+	@Test
+	void resolveLatestVersion() throws IOException {
+		try (StubRepositoryServer server = new StubRepositoryServer().search(SEARCH_RECORDING);
+			 MavenResolver resolver = resolver(server, HttpOptions.DEFAULT)) {
+			assertEquals(MODULES + ":21.0.1:linux", resolver.resolveDependency(MODULES + ":#latest#:linux", true));
+			assertEquals(MODULES + ":22-ea+16:linux", resolver.resolveDependency(MODULES + ":#early#:linux", true));
+			assertEquals(MODULES + ":20.0.2:linux", resolver.resolveDependency(MODULES + ":#latest-20#:linux", true));
+		}
+	}
+	
+	@Test
+	void resolveVersionWithPlatformFiles() throws IOException {
+		try (StubRepositoryServer server = new StubRepositoryServer().search(SEARCH_RECORDING);
+			 MavenResolver resolver = resolver(server, HttpOptions.DEFAULT)) {
+			// The graphics module of 21.0.1 doesn't publish the linux aarch64 files
+			assertEquals(MODULES + ":21:linux-aarch64",
+						 resolver.resolveDependency(MODULES + ":#latest#:linux-aarch64", true));
+			assertThrows(RuntimeException.class, () -> resolver.resolveDependency(MODULES + ":#latest#:solaris", true));
+		}
+	}
+	
+	@Test
+	void concurrentCallsShareOneLookup() throws Exception {
+		try (StubRepositoryServer server = new StubRepositoryServer().search(SEARCH_RECORDING)
+			.latency(Duration.ofMillis(200));
+			 MavenResolver resolver = resolver(server, HttpOptions.DEFAULT)) {
+			ExecutorService executor = Executors.newFixedThreadPool(16);
+			CountDownLatch ready = new CountDownLatch(1);
+			List<CompletableFuture<String>> calls = new ArrayList<>();
+			
+			try {
+				for (int i = 0; i < 64; i++) {
+					calls.add(CompletableFuture.supplyAsync(() -> {
+						await(ready);
+						return resolver.resolveDependency(MODULES + ":#latest#:linux", true);
+					}, executor));
+				}
+				ready.countDown();
+				
+				assertEquals(List.of(MODULES + ":21.0.1:linux"), calls.stream()
+					.map(CompletableFuture::join)
+					.distinct()
+					.collect(Collectors.toList()));
+				assertEquals(1, server.requests());
+			} finally {
+				executor.shutdownNow();
+			}
+		}
+	}
+	
+	@Test
+	void retryTemporaryErrors() throws IOException {
+		try (StubRepositoryServer server = new StubRepositoryServer().search(SEARCH_RECORDING).failures(2, 503);
+			 MavenResolver resolver = resolver(server, HttpOptions.DEFAULT)) {
+			assertEquals(MODULES + ":21.0.1:linux", resolver.resolveDependency(MODULES + ":#latest#:linux", true));
+			assertEquals(3, server.requests());
+		}
+	}
+	
+	@Test
+	void failWhenRetriesAreExhausted() throws IOException {
+		HttpOptions options = new HttpOptions(HttpOptions.DEFAULT_REQUEST_TIMEOUT, 1, null, HttpOptions.DEFAULT_BUDGET);
+		try (StubRepositoryServer server = new StubRepositoryServer().search(SEARCH_RECORDING).failures(5, 500);
+			 MavenResolver resolver = resolver(server, options)) {
+			assertThrows(RuntimeException.class, () -> resolver.resolveDependency(MODULES + ":#latest#:linux", true));
+			assertTrue(server.requests() <= 2);
+		}
+	}
+	
+	@Test
+	void revalidateExpiredResolution(@TempDir File cacheDirectory) throws Exception {
+		// Resolutions expire immediately, so each resolver revalidates the stored one
+		DependencyDiskCache diskCache = new DependencyDiskCache(cacheDirectory, Duration.ZERO);
+		try (StubRepositoryServer server = new StubRepositoryServer().search(SEARCH_RECORDING)) {
+			String key;
+			try (MavenResolver first = resolver(server, HttpOptions.DEFAULT, diskCache)) {
+				key = modulesKey(first);
+				assertEquals(MODULES + ":21.0.1:linux", first.resolveDependency(MODULES + ":#latest#:linux", true));
+			}
+			int requests = server.requests();
+			long resolvedAt = DependencyDiskCacheTest.storedTimestamp(cacheDirectory, key);
+			Thread.sleep(10);
+			
+			// Only the first page is requested again and the server answers "not modified"
+			try (MavenResolver second = resolver(server, HttpOptions.DEFAULT, diskCache)) {
+				assertEquals(MODULES + ":21.0.1:linux", second.resolveDependency(MODULES + ":#latest#:linux", true));
+			}
+			assertEquals(requests + 1, server.requests());
+			assertEquals(List.of(304), server.statuses().subList(requests, requests + 1));
+			assertTrue(DependencyDiskCacheTest.storedTimestamp(cacheDirectory, key) > resolvedAt);
+		}
+	}
+	
+	@Test
+	void hedgeSlowRequests() throws IOException {
+		Duration stall = Duration.ofSeconds(5);
+		HttpOptions options = new HttpOptions(HttpOptions.DEFAULT_REQUEST_TIMEOUT, HttpOptions.DEFAULT_MAX_RETRIES,
+											  Duration.ofMillis(100), HttpOptions.DEFAULT_BUDGET);
+		try (StubRepositoryServer server = new StubRepositoryServer().search(SEARCH_RECORDING).stalls(1, stall);
+			 MavenResolver resolver = resolver(server, options)) {
+			long elapsed = System.nanoTime();
+			assertEquals(MODULES + ":21.0.1:linux", resolver.resolveDependency(MODULES + ":#latest#:linux", true));
+			elapsed = System.nanoTime() - elapsed;
+			
+			// The hedged request answered first, the stalled request was not awaited
+			assertEquals(2, server.requests());
+			assertEquals(List.of(200), server.statuses());
+			assertTrue(elapsed < stall.toNanos());
+		}
+	}
+	
+	@Test
+	void respectLatencyBudget(@TempDir File cacheDirectory) throws IOException {
+		Duration latency = Duration.ofSeconds(5);
+		HttpOptions options = new HttpOptions(HttpOptions.DEFAULT_REQUEST_TIMEOUT, HttpOptions.DEFAULT_MAX_RETRIES,
+											  null, Duration.ofMillis(200));
+		DependencyDiskCache diskCache = new DependencyDiskCache(cacheDirectory, Duration.ZERO);
+		
+		try (StubRepositoryServer server = new StubRepositoryServer().search(SEARCH_RECORDING).latency(latency)) {
+			// Without local information the resolution fails
+			long elapsed = System.nanoTime();
+			try (MavenResolver resolver = resolver(server, options)) {
+				assertThrows(RuntimeException.class,
+							 () -> resolver.resolveDependency(MODULES + ":#latest#:linux", true));
+			}
+			assertTrue(System.nanoTime() - elapsed < latency.toNanos());
+			
+			// The expired resolution is used instead
+			elapsed = System.nanoTime();
+			try (MavenResolver resolver = resolver(server, options, diskCache)) {
+				diskCache.store(modulesKey(resolver), "20.0.2");
+				assertEquals(MODULES + ":20.0.2:linux", resolver.resolveDependency(MODULES + ":#latest#:linux", true));
+			}
+			assertTrue(System.nanoTime() - elapsed < latency.toNanos());
+		}
+	}
+	
+	/* -----------------------------------------------------------------------
+	 * Internal methods
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Create a resolver of the stub server without persistent cache
+	 *
+	 * @param server  the stub server
+	 * @param options http requests configuration
+	 * @return the resolver instance
+	 */
+	static MavenResolver resolver(StubRepositoryServer server, HttpOptions options) {
+		return resolver(server, options, SpecialVersionResolver.DEFAULT_MAX_CACHE_ENTRIES);
+	}
+	
+	/**
+	 * Create a resolver of the stub server without persistent cache
+	 *
+	 * @param server          the stub server
+	 * @param options         http requests configuration
+	 * @param maxCacheEntries max number of lookups kept in memory
+	 * @return the resolver instance
+	 */
+	static MavenResolver resolver(StubRepositoryServer server, HttpOptions options, int maxCacheEntries) {
+		return new MavenResolver(new VersionIndex(), options, null, null, false, maxCacheEntries,
+								 server.searchLocation());
+	}
+	
+	/**
+	 * Create a resolver of the stub server with persistent cache
+	 *
+	 * @param server    the stub server
+	 * @param options   http requests configuration
+	 * @param diskCache the persistent cache
+	 * @return the resolver instance
+	 */
+	static MavenResolver resolver(StubRepositoryServer server, HttpOptions options, DependencyDiskCache diskCache) {
+		return new MavenResolver(new VersionIndex(), options, diskCache, null, false,
+								 SpecialVersionResolver.DEFAULT_MAX_CACHE_ENTRIES, server.searchLocation());
+	}
+	
+	/**
+	 * Returns the persistent cache key of the latest linux modules
+	 *
+	 * @param resolver the resolver that stores the resolution
+	 * @return the cache key
+	 */
+	static String modulesKey(SpecialVersionResolver resolver) {
+		return DependencyDiskCache.key(resolver.cacheScope(), "org.openjfx", "javafx-base,javafx-controls,javafx-graphics",
+									   "latest:linux");
+	}
+	
+	/**
+	 * Wait until all callers are ready
+	 *
+	 * @param ready the start signal
+	 */
+	private static void await(CountDownLatch ready) {
+		try {
+			ready.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+}
@@ -0,0 +1,215 @@
+package ushiosan.custom.jfx;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import custom_jfx_plugin.dependency.base.VersionIndex;
+import custom_jfx_plugin.dependency.maven.response.MavenArtifact;
+import custom_jfx_plugin.dependency.maven.response.MavenResponse;
+import custom_jfx_plugin.dependency.maven.response.MavenResponseReader;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MavenResponseReaderTest {
+	
+	/**
+	 * Same selector used to resolve {@code #latest#} versions
+	 */
+	private static final VersionIndex.Selector LATEST_VERSION = new VersionIndex().selector("latest");
+	
+	/**
+	 * Same configuration used by the resolvers before the streaming parser
+	 */
+	private static final Gson SERIALIZER = new GsonBuilder()
+		.serializeNulls()
+		.setPrettyPrinting()
+		.create();
+	
+	@Test
+	void readLatestVersion() throws IOException {
+		String content = responsePage(200);
+		MavenResponseReader.Summary summary = readStreaming(content);
+		
+		assertEquals(200, summary.found());
+		assertEquals(0, summary.start());
+		assertEquals(200, summary.count());
+		assertEquals(readObjects(content), summary.latest());
+	}
+	
+	@Test
+	void readPagesUntilComplete() throws IOException {
+		List<String> history = publishedVersions(200);
+		MavenResponseReader.Summary summary = new MavenResponseReader.Summary();
+		int pages = 0;
+		
+		do {
+			String content = responsePage(history, summary.count(), 20);
+			MavenResponseReader.read(new StringReader(content), LATEST_VERSION, summary);
+			pages++;
+		} while (summary.hasNext());
+		
+		assertTrue(pages < history.size() / 20);
+		assertEquals(readObjects(responsePage(history, 0, history.size())), summary.latest());
+	}
+	
+	@Test
+	void readEmptyResponse() throws IOException {
+		MavenResponseReader.Summary summary = readStreaming(
+			"{\"responseHeader\":{\"status\":0},\"response\":{\"numFound\":0,\"start\":0,\"docs\":[]}}");
+		
+		assertEquals(0, summary.found());
+		assertNull(summary.latest());
+	}
+	
+	@Test
+	void readClassifierOfAllArtifacts() throws IOException {
+		// The newest version doesn't publish the aarch64 file of the graphics module
+		String content = "{\"response\":{\"numFound\":6,\"start\":0,\"docs\":[" +
+			artifact("javafx-graphics", "21.0.2", "\"-linux.jar\",\"-mac.jar\"") + "," +
+			artifact("javafx-base", "21.0.2", "\"-linux.jar\",\"-mac.jar\",\"-mac-aarch64.jar\"") + "," +
+			artifact("javafx-web", "21.0.1", "\"-mac-aarch64.jar\"") + "," +
+			artifact("javafx-graphics", "21.0.1", "\"-linux.jar\",\"-mac-aarch64.jar\"") + "," +
+			artifact("javafx-base", "21.0.1", "\"-mac-aarch64.jar\",\".pom\"") + "," +
+			artifact("javafx-base", "21", "\"-mac-aarch64.jar\"") + "]}}";
+		List<String> artifacts = List.of("javafx-base", "javafx-graphics");
+		
+		assertEquals("21.0.1", MavenResponseReader.read(new StringReader(content), LATEST_VERSION,
+			new MavenResponseReader.Summary(artifacts, "-mac-aarch64.jar")).latest());
+		assertEquals("21.0.2", MavenResponseReader.read(new StringReader(content), LATEST_VERSION,
+			new MavenResponseReader.Summary(artifacts, "-mac.jar")).latest());
+		assertNull(MavenResponseReader.read(new StringReader(content), LATEST_VERSION,
+			new MavenResponseReader.Summary(artifacts, "-win.jar")).latest());
+	}
+	
+	@Test
+	@Tag("benchmark")
+	void benchmarkLargePages() throws IOException {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long threadId = Thread.currentThread().getId();
+		
+		for (int pageSize : new int[]{50, 1_000, 10_000}) {
+			String content = responsePage(pageSize);
+			int iterations = Math.max(20, 200_000 / pageSize);
+			
+			// Warm up both paths
+			for (int i = 0; i < iterations; i++) {
+				readObjects(content);
+				readStreaming(content);
+			}
+			
+			long objectsBytes = threads.getThreadAllocatedBytes(threadId);
+			long objectsTime = System.nanoTime();
+			for (int i = 0; i < iterations; i++) readObjects(content);
+			objectsTime = System.nanoTime() - objectsTime;
+			objectsBytes = threads.getThreadAllocatedBytes(threadId) - objectsBytes;
+			
+			long streamingBytes = threads.getThreadAllocatedBytes(threadId);
+			long streamingTime = System.nanoTime();
+			for (int i = 0; i < iterations; i++) readStreaming(content);
+			streamingTime = System.nanoTime() - streamingTime;
+			streamingBytes = threads.getThreadAllocatedBytes(threadId) - streamingBytes;
+			
+			System.out.printf("page=%d objects: %d us/op %d KiB/op, streaming: %d us/op %d KiB/op%n",
+							  pageSize,
+							  objectsTime / iterations / 1_000, objectsBytes / iterations / 1_024,
+							  streamingTime / iterations / 1_000, streamingBytes / iterations / 1_024);
+			assertEquals(readObjects(content), readStreaming(content).latest());
+		}
+	}
+	
+	/* -----------------------------------------------------------------------
+	 * Internal methods
+	 * -----------------------------------------------------------------------*/
+	
+	private static MavenResponseReader.Summary readStreaming(String content) throws IOException {
+		return MavenResponseReader.read(new StringReader(content), LATEST_VERSION);
+	}
+	
+	private static String readObjects(String content) {
+		MavenResponse response = SERIALIZER.fromJson(new StringReader(content), MavenResponse.class);
+		return LATEST_VERSION.select(Arrays.stream(response.response().content()).map(MavenArtifact::version))
+			.orElse(null);
+	}
+	
+	/**
+	 * Generate a search response with the same shape as the maven central responses
+	 *
+	 * @param size number of artifacts
+	 * @return the json content
+	 */
+	private static String responsePage(int size) {
+		return responsePage(publishedVersions(size), 0, size);
+	}
+	
+	/**
+	 * Generate a search response page, the versions are sorted from the newest published to the oldest published
+	 *
+	 * @param versions all versions of the artifact
+	 * @param start    the index with the first artifact
+	 * @param rows     max number of artifacts
+	 * @return the json content
+	 */
+	private static String responsePage(List<String> versions, int start, int rows) {
+		StringBuilder builder = new StringBuilder()
+			.append("{\"responseHeader\":{\"status\":0,\"QTime\":1,\"params\":{\"q\":\"g:org.openjfx AND a:javafx\"}},")
+			.append("\"response\":{\"numFound\":").append(versions.size()).append(",\"start\":").append(start)
+			.append(",\"docs\":[");
+		
+		for (int i = start; i < Math.min(start + rows, versions.size()); i++) {
+			String version = versions.get(i);
+			
+			if (i > start) builder.append(',');
+			builder.append("{\"id\":\"org.openjfx:javafx:").append(version).append("\",")
+				.append("\"g\":\"org.openjfx\",\"a\":\"javafx\",\"v\":\"").append(version).append("\",")
+				.append("\"p\":\"pom\",\"timestamp\":").append(1_600_000_000_000L - i).append(',')
+				.append("\"ec\":[\"-linux.jar\",\"-win.jar\",\"-mac.jar\",\"-linux-aarch64.jar\",")
+				.append("\"-mac-aarch64.jar\",\"-win-x86.jar\",\"-javadoc.jar\",\"-sources.jar\",\".pom\"],")
+				.append("\"tags\":[\"javafx\",\"client\",\"application\",\"platform\",\"library\"]}");
+		}
+		return builder.append("]}}").toString();
+	}
+	
+	/**
+	 * Generate a search response artifact
+	 *
+	 * @param artifact the artifact id
+	 * @param version  the artifact version
+	 * @param files    the published files (json array content)
+	 * @return the json content
+	 */
+	private static String artifact(String artifact, String version, String files) {
+		return "{\"g\":\"org.openjfx\",\"a\":\"" + artifact + "\",\"v\":\"" + version + "\",\"ec\":[" + files + "]}";
+	}
+	
+	/**
+	 * Generate an artifact history: each major version has some early access builds, the
+	 * first release and its updates
+	 *
+	 * @param size number of versions
+	 * @return the versions from the newest published to the oldest published
+	 */
+	private static List<String> publishedVersions(int size) {
+		List<String> versions = new ArrayList<>(size);
+		for (int major = 11; versions.size() < size; major++) {
+			for (int build = 1; build <= 5; build++) versions.add(String.format("%d-ea+%d", major, build));
+			versions.add(String.valueOf(major));
+			for (int update = 1; update <= 14; update++) versions.add(String.format("%d.0.%d", major, update));
+		}
+		
+		versions = versions.subList(0, size);
+		Collections.reverse(versions);
+		return versions;
+	}
+	
+}
@@ -0,0 +1,101 @@
+package ushiosan.custom.jfx;
+
+import custom_jfx_plugin.dependency.base.HttpOptions;
+import custom_jfx_plugin.dependency.base.SpecialVersionResolver;
+import custom_jfx_plugin.dependency.base.VersionIndex;
+import custom_jfx_plugin.dependency.metadata.MetadataResolver;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetadataResolverTest {
+	
+	/**
+	 * Recorded metadata of the base module
+	 */
+	private static final String METADATA_RECORDING = "/stub/javafx-base-maven-metadata.xml";
+	
+	/**
+	 * Artifact of the recorded metadata
+	 */
+	private static final String ARTIFACT = "org.openjfx:javafx-base";
+	
+	@Test
+	void resolveLatestVersion(@TempDir File metadataDirectory) throws IOException {
+		try (StubRepositoryServer server = new StubRepositoryServer()
+			.metadata("org/openjfx/javafx-base", METADATA_RECORDING);
+			 MetadataResolver resolver = resolver(server, metadataDirectory)) {
+			assertEquals(ARTIFACT + ":21.0.1", resolver.resolveDependency(ARTIFACT + ":#latest#", true));
+			assertEquals(ARTIFACT + ":22-ea+16", resolver.resolveDependency(ARTIFACT + ":#early#", true));
+		}
+	}
+	
+	@Test
+	void revalidateDownloadedMetadata(@TempDir File metadataDirectory) throws IOException {
+		try (StubRepositoryServer server = new StubRepositoryServer()
+			.metadata("org/openjfx/javafx-base", METADATA_RECORDING)) {
+			// The second resolver uses the same metadata directory, so the content is revalidated
+			try (MetadataResolver first = resolver(server, metadataDirectory);
+				 MetadataResolver second = resolver(server, metadataDirectory)) {
+				first.resolveDependency(ARTIFACT + ":#latest#", true);
+				assertEquals(ARTIFACT + ":21.0.1", second.resolveDependency(ARTIFACT + ":#latest#", true));
+			}
+			
+			// The 304 response is empty, so the version was read from the stored metadata
+			assertEquals(List.of(200, 304), server.statuses());
+			try (Stream<Path> files = Files.list(metadataDirectory.toPath())) {
+				assertTrue(files.anyMatch(it -> it.getFileName().toString().endsWith(".xml")));
+			}
+		}
+	}
+	
+	@Test
+	void readLocalRepository(@TempDir Path directory) throws IOException {
+		Path artifactDirectory = directory.resolve("repository/org/openjfx/javafx-base");
+		Files.createDirectories(artifactDirectory);
+		try (InputStream recording = MetadataResolverTest.class.getResourceAsStream(METADATA_RECORDING)) {
+			Files.copy(recording, artifactDirectory.resolve("maven-metadata.xml"));
+		}
+		
+		// Local repositories are read without requests and its metadata is not stored
+		Path metadataDirectory = Files.createDirectories(directory.resolve("metadata"));
+		try (MetadataResolver resolver = new MetadataResolver(List.of(directory.resolve("repository").toUri()),
+															  metadataDirectory.toFile(), new VersionIndex(),
+															  HttpOptions.DEFAULT, null, null, false,
+															  SpecialVersionResolver.DEFAULT_MAX_CACHE_ENTRIES)) {
+			assertEquals(ARTIFACT + ":21.0.1", resolver.resolveDependency(ARTIFACT + ":#latest#", true));
+			assertEquals(ARTIFACT + ":20.0.2", resolver.resolveDependency(ARTIFACT + ":#latest-20#", true));
+		}
+		try (Stream<Path> files = Files.list(metadataDirectory)) {
+			assertEquals(0, files.count());
+		}
+	}
+	
+	/* -----------------------------------------------------------------------
+	 * Internal methods
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Create a resolver of the stub repository without persistent cache
+	 *
+	 * @param server            the stub server
+	 * @param metadataDirectory directory with the downloaded metadata
+	 * @return the resolver instance
+	 */
+	private static MetadataResolver resolver(StubRepositoryServer server, File metadataDirectory) {
+		return new MetadataResolver(List.of(server.repositoryLocation()), metadataDirectory, new VersionIndex(),
+									HttpOptions.DEFAULT, null, null, false,
+									SpecialVersionResolver.DEFAULT_MAX_CACHE_ENTRIES);
+	}
+	
+}
@@ -0,0 +1,131 @@
+package ushiosan.custom.jfx;
+
+import custom_jfx_plugin.dependency.base.HttpOptions;
+import custom_jfx_plugin.dependency.base.SpecialVersionResolver;
+import custom_jfx_plugin.dependency.maven.MavenResolver;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drive many concurrent resolutions against the stub server, like the projects of a
+ * {@code --parallel} build, and report throughput, tail latency and upstream requests.
+ */
+class ResolverLoadTest {
+	
+	/**
+	 * Number of concurrent callers
+	 */
+	private static final int THREADS = 32;
+	
+	/**
+	 * Number of resolutions of each caller
+	 */
+	private static final int CALLS_PER_THREAD = 200;
+	
+	/**
+	 * Stub server latency of each response
+	 */
+	private static final Duration LATENCY = Duration.ofMillis(25);
+	
+	/**
+	 * Configurations resolved by the callers
+	 */
+	private static final List<String> CONFIGURATIONS = List.of(
+		"org.openjfx:javafx-base,javafx-controls,javafx-graphics:#latest#:linux",
+		"org.openjfx:javafx-base,javafx-controls,javafx-graphics:#latest#:linux-aarch64",
+		"org.openjfx:javafx-base,javafx-controls,javafx-graphics:#latest#:mac",
+		"org.openjfx:javafx-base,javafx-controls,javafx-graphics:#latest#:win",
+		"org.openjfx:javafx-base,javafx-controls,javafx-graphics:#early#:linux",
+		"org.openjfx:javafx-base,javafx-controls,javafx-graphics:#latest-20#:linux",
+		"org.openjfx:javafx-base,javafx-graphics:#latest#:mac-aarch64",
+		"org.openjfx:javafx-base:#latest#:linux");
+	
+	@Test
+	@Tag("benchmark")
+	void concurrentResolutions() throws Exception {
+		// Lookups kept in memory and lookups shared only while they are in progress
+		for (int maxCacheEntries : new int[]{SpecialVersionResolver.DEFAULT_MAX_CACHE_ENTRIES, 0}) {
+			try (StubRepositoryServer server = new StubRepositoryServer()
+				.search(MavenResolverTest.SEARCH_RECORDING)
+				.latency(LATENCY);
+				 MavenResolver resolver = MavenResolverTest.resolver(server, HttpOptions.DEFAULT, maxCacheEntries)) {
+				long elapsed = System.nanoTime();
+				long[] latencies = run(resolver);
+				elapsed = System.nanoTime() - elapsed;
+				
+				System.out.printf("maxCacheEntries=%d calls=%d throughput=%d ops/s p50=%d us p99=%d us max=%d us " +
+								  "upstream requests=%d%n",
+								  maxCacheEntries, latencies.length, latencies.length * 1_000_000_000L / elapsed,
+								  percentile(latencies, 0.50) / 1_000, percentile(latencies, 0.99) / 1_000,
+								  latencies[latencies.length - 1] / 1_000, server.requests());
+				assertTrue(server.requests() < latencies.length);
+			}
+		}
+	}
+	
+	/* -----------------------------------------------------------------------
+	 * Internal methods
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Execute all resolutions and measure the latency of each one
+	 *
+	 * @param resolver the resolver to use
+	 * @return the latency of each resolution (nanoseconds), sorted
+	 * @throws Exception error if any resolution fails
+	 */
+	private static long[] run(MavenResolver resolver) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch ready = new CountDownLatch(1);
+		List<Future<long[]>> callers = new ArrayList<>();
+		
+		try {
+			for (int thread = 0; thread < THREADS; thread++) {
+				int offset = thread;
+				callers.add(executor.submit(() -> {
+					long[] result = new long[CALLS_PER_THREAD];
+					ready.await();
+					for (int i = 0; i < CALLS_PER_THREAD; i++) {
+						long start = System.nanoTime();
+						resolver.resolveDependency(CONFIGURATIONS.get((offset + i) % CONFIGURATIONS.size()), true);
+						result[i] = System.nanoTime() - start;
+					}
+					return result;
+				}));
+			}
+			ready.countDown();
+			
+			long[] latencies = new long[THREADS * CALLS_PER_THREAD];
+			for (int i = 0; i < callers.size(); i++) {
+				System.arraycopy(callers.get(i).get(), 0, latencies, i * CALLS_PER_THREAD, CALLS_PER_THREAD);
+			}
+			Arrays.sort(latencies);
+			return latencies;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+	
+	/**
+	 * Returns the percentile of the sorted values
+	 *
+	 * @param sorted     the sorted values
+	 * @param percentile the percentile (0-1)
+	 * @return the percentile value
+	 */
+	private static long percentile(long[] sorted, double percentile) {
+		return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)];
+	}
+	
+}
@@ -0,0 +1,179 @@
+package ushiosan.custom.jfx;
+
+import custom_jfx_plugin.dependency.base.DependencyDiskCache;
+import custom_jfx_plugin.dependency.base.HttpOptions;
+import custom_jfx_plugin.dependency.base.SpecialVersionResolver;
+import custom_jfx_plugin.dependency.base.VersionIndex;
+import custom_jfx_plugin.dependency.maven.MavenResolver;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpecialVersionResolverTest {
+	
+	/**
+	 * Artifact resolved by the tests
+	 */
+	private static final String ARTIFACT = "org.openjfx:javafx-base";
+	
+	@Test
+	void resolveOfflineFromDiskCache(@TempDir File cacheDirectory) throws IOException {
+		// Expired resolutions are used in offline mode
+		DependencyDiskCache diskCache = new DependencyDiskCache(cacheDirectory, Duration.ZERO);
+		
+		try (StubRepositoryServer server = new StubRepositoryServer().search(MavenResolverTest.SEARCH_RECORDING);
+			 MavenResolver resolver = resolver(server.searchLocation(), diskCache, null, true)) {
+			diskCache.store(key(resolver), "20.0.2");
+			assertEquals(ARTIFACT + ":20.0.2:linux", resolver.resolveDependency(ARTIFACT + ":#latest#:linux", true));
+			assertEquals(0, server.requests());
+		}
+	}
+	
+	@Test
+	void resolveOfflineFromModuleCache(@TempDir Path moduleCache) throws IOException {
+		downloadedJar(moduleCache, "20.0.2", "linux");
+		downloadedJar(moduleCache, "21.0.1", "linux");
+		// Versions without the classifier file are not valid
+		downloadedJar(moduleCache, "21.0.2", "mac");
+		
+		try (StubRepositoryServer server = new StubRepositoryServer().search(MavenResolverTest.SEARCH_RECORDING);
+			 MavenResolver resolver = resolver(server.searchLocation(), null, moduleCache.toFile(), true)) {
+			assertEquals(ARTIFACT + ":21.0.1:linux", resolver.resolveDependency(ARTIFACT + ":#latest#:linux", true));
+			assertEquals(ARTIFACT + ":20.0.2:linux", resolver.resolveDependency(ARTIFACT + ":#latest-20#:linux", true));
+			assertEquals(0, server.requests());
+		}
+	}
+	
+	@Test
+	void failOfflineWithoutLocalData(@TempDir Path moduleCache) throws IOException {
+		try (StubRepositoryServer server = new StubRepositoryServer().search(MavenResolverTest.SEARCH_RECORDING);
+			 MavenResolver resolver = resolver(server.searchLocation(), null, moduleCache.toFile(), true)) {
+			IllegalStateException error = assertThrows(IllegalStateException.class,
+													   () -> resolver.resolveDependency(ARTIFACT + ":#latest#:linux",
+																						true));
+			assertTrue(error.getMessage().contains("offline mode"));
+			assertEquals(0, server.requests());
+		}
+	}
+	
+	@Test
+	void fallbackOnlyWhenNetworkIsNotAvailable(@TempDir File cacheDirectory) throws IOException {
+		DependencyDiskCache diskCache = new DependencyDiskCache(cacheDirectory, Duration.ZERO);
+		
+		// Connection refused, the expired resolution is used
+		URI closedLocation;
+		try (StubRepositoryServer server = new StubRepositoryServer()) {
+			closedLocation = server.searchLocation();
+		}
+		try (MavenResolver resolver = resolver(closedLocation, diskCache, null, false)) {
+			diskCache.store(key(resolver), "20.0.2");
+			assertEquals(ARTIFACT + ":20.0.2:linux", resolver.resolveDependency(ARTIFACT + ":#latest#:linux", true));
+		}
+		
+		// The server answers with an error, the error is reported
+		try (StubRepositoryServer server = new StubRepositoryServer();
+			 MavenResolver resolver = resolver(server.searchLocation(), diskCache, null, false)) {
+			diskCache.store(key(resolver), "20.0.2");
+			assertThrows(RuntimeException.class, () -> resolver.resolveDependency(ARTIFACT + ":#latest#:linux", true));
+		}
+	}
+	
+	@Test
+	void useExpiredResolutionWhileRefreshing(@TempDir File cacheDirectory) throws IOException {
+		Duration latency = Duration.ofSeconds(3);
+		String configuration = MavenResolverTest.MODULES + ":#latest#:linux";
+		DependencyDiskCache diskCache = new DependencyDiskCache(cacheDirectory, Duration.ZERO, true);
+		
+		try (StubRepositoryServer server = new StubRepositoryServer().search(MavenResolverTest.SEARCH_RECORDING)
+			.latency(latency)) {
+			// The expired resolution is returned without waiting the refresh
+			try (MavenResolver resolver = MavenResolverTest.resolver(server, HttpOptions.DEFAULT, diskCache)) {
+				diskCache.store(MavenResolverTest.modulesKey(resolver), "20.0.2");
+				long elapsed = System.nanoTime();
+				assertEquals(MavenResolverTest.MODULES + ":20.0.2:linux", resolver.resolveDependency(configuration, true));
+				assertTrue(System.nanoTime() - elapsed < latency.toNanos());
+			}
+			
+			// The next resolver uses the refreshed resolution without requests
+			int requests = server.requests();
+			try (MavenResolver resolver = MavenResolverTest.resolver(server, HttpOptions.DEFAULT,
+																	  DependencyDiskCacheTest.cache(cacheDirectory))) {
+				assertEquals(MavenResolverTest.MODULES + ":21.0.1:linux", resolver.resolveDependency(configuration, true));
+			}
+			assertEquals(requests, server.requests());
+		}
+	}
+	
+	@Test
+	void closeWaitsPendingRefreshes(@TempDir File cacheDirectory) throws IOException {
+		DependencyDiskCache diskCache = new DependencyDiskCache(cacheDirectory, Duration.ZERO, true);
+		
+		try (StubRepositoryServer server = new StubRepositoryServer().search(MavenResolverTest.SEARCH_RECORDING)
+			.latency(Duration.ofMillis(500))) {
+			MavenResolver resolver = MavenResolverTest.resolver(server, HttpOptions.DEFAULT, diskCache);
+			String key = MavenResolverTest.modulesKey(resolver);
+			diskCache.store(key, "20.0.2");
+			resolver.resolveDependency(MavenResolverTest.MODULES + ":#latest#:linux", true);
+			assertEquals(Optional.of("20.0.2"), diskCache.find(key, true));
+			
+			// The refresh is stored before the resolver is released
+			resolver.close();
+			assertEquals(Optional.of("21.0.1"), diskCache.find(key, true));
+		}
+	}
+	
+	/* -----------------------------------------------------------------------
+	 * Internal methods
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Create a resolver with local information
+	 *
+	 * @param searchLocation       the search service location
+	 * @param diskCache            the persistent cache or {@code null} to disable it
+	 * @param moduleCacheDirectory the gradle module cache directory or {@code null} to disable it
+	 * @param offline              {@code true} to resolve dependencies only with local information
+	 * @return the resolver instance
+	 */
+	private static MavenResolver resolver(URI searchLocation, DependencyDiskCache diskCache, File moduleCacheDirectory,
+		boolean offline) {
+		return new MavenResolver(new VersionIndex(), HttpOptions.DEFAULT, diskCache, moduleCacheDirectory, offline,
+								 SpecialVersionResolver.DEFAULT_MAX_CACHE_ENTRIES, searchLocation);
+	}
+	
+	/**
+	 * Returns the persistent cache key of the latest linux base module
+	 *
+	 * @param resolver the resolver that stores the resolution
+	 * @return the cache key
+	 */
+	private static String key(SpecialVersionResolver resolver) {
+		return DependencyDiskCache.key(resolver.cacheScope(), "org.openjfx", "javafx-base", "latest:linux");
+	}
+	
+	/**
+	 * Create a jar of the base module in the gradle module cache
+	 *
+	 * @param moduleCache the module cache directory
+	 * @param version     the artifact version
+	 * @param classifier  the artifact classifier
+	 * @throws IOException error if the file cannot be written
+	 */
+	private static void downloadedJar(Path moduleCache, String version, String classifier) throws IOException {
+		Path hashDirectory = moduleCache.resolve("org.openjfx/javafx-base/" + version + "/5f3b2c1d");
+		Files.createDirectories(hashDirectory);
+		Files.write(hashDirectory.resolve("javafx-base-" + version + "-" + classifier + ".jar"), new byte[0]);
+	}
+	
+}
@@ -0,0 +1,386 @@
+package ushiosan.custom.jfx;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process http server that replays recorded search and {@code maven-metadata.xml} responses,
+ * so the resolvers can be tested without the public internet.
+ */
+final class StubRepositoryServer implements AutoCloseable {
+	
+	/* -----------------------------------------------------------------------
+	 * Properties
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Search service path
+	 */
+	static final String SEARCH_PATH = "/solrsearch/select";
+	
+	/**
+	 * Maven repository path
+	 */
+	static final String REPOSITORY_PATH = "/maven2/";
+	
+	/**
+	 * Http server instance
+	 */
+	private final HttpServer server;
+	
+	/**
+	 * Http server threads
+	 */
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+	
+	/**
+	 * Recorded responses of each path
+	 */
+	private final Map<String, Recording> recordings = new ConcurrentHashMap<>();
+	
+	/**
+	 * Number of requests received
+	 */
+	private final AtomicInteger requests = new AtomicInteger();
+	
+	/**
+	 * Http status of each response, in the order they were sent
+	 */
+	private final List<Integer> statuses = new CopyOnWriteArrayList<>();
+	
+	/**
+	 * Number of requests that will fail
+	 */
+	private final AtomicInteger pendingFailures = new AtomicInteger();
+	
+	/**
+	 * Http status of the failed requests
+	 */
+	private volatile int failureStatus = 503;
+	
+	/**
+	 * Time to wait before send each response
+	 */
+	private volatile Duration latency = Duration.ZERO;
+	
+	/**
+	 * Number of requests that will be stalled
+	 */
+	private final AtomicInteger pendingStalls = new AtomicInteger();
+	
+	/**
+	 * Extra time to wait before send the stalled responses
+	 */
+	private volatile Duration stall = Duration.ZERO;
+	
+	/* -----------------------------------------------------------------------
+	 * Constructors
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Start the server in a random port
+	 *
+	 * @throws IOException error if the server cannot be started
+	 */
+	StubRepositoryServer() throws IOException {
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+		server.createContext("/", this::handle);
+		server.setExecutor(executor);
+		server.start();
+	}
+	
+	/* -----------------------------------------------------------------------
+	 * Methods
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Replay a recorded search response. The recorded artifacts are split in pages with the
+	 * {@code start} and {@code rows} parameters of each request.
+	 *
+	 * @param resource the recorded response resource
+	 * @return this server
+	 */
+	StubRepositoryServer search(String resource) {
+		recordings.put(SEARCH_PATH, new Recording(readResource(resource), "application/json", true));
+		return this;
+	}
+	
+	/**
+	 * Replay a recorded metadata file of the repository
+	 *
+	 * @param artifactPath the artifact path inside the repository ({@code org/openjfx/javafx-base})
+	 * @param resource     the recorded metadata resource
+	 * @return this server
+	 */
+	StubRepositoryServer metadata(String artifactPath, String resource) {
+		recordings.put(REPOSITORY_PATH + artifactPath + "/maven-metadata.xml",
+					   new Recording(readResource(resource), "application/xml", false));
+		return this;
+	}
+	
+	/**
+	 * Change the time to wait before send each response
+	 *
+	 * @param latency the response latency
+	 * @return this server
+	 */
+	StubRepositoryServer latency(Duration latency) {
+		this.latency = latency;
+		return this;
+	}
+	
+	/**
+	 * Make the next requests slower than the other requests
+	 *
+	 * @param count number of requests that will be stalled
+	 * @param stall extra time to wait before send the stalled responses
+	 * @return this server
+	 */
+	StubRepositoryServer stalls(int count, Duration stall) {
+		this.stall = stall;
+		pendingStalls.set(count);
+		return this;
+	}
+	
+	/**
+	 * Make the next requests fail
+	 *
+	 * @param count  number of requests that will fail
+	 * @param status http status of the failed requests
+	 * @return this server
+	 */
+	StubRepositoryServer failures(int count, int status) {
+		failureStatus = status;
+		pendingFailures.set(count);
+		return this;
+	}
+	
+	/**
+	 * Returns the search service location
+	 *
+	 * @return the search location
+	 */
+	URI searchLocation() {
+		return location(SEARCH_PATH);
+	}
+	
+	/**
+	 * Returns the maven repository location
+	 *
+	 * @return the repository location
+	 */
+	URI repositoryLocation() {
+		return location(REPOSITORY_PATH);
+	}
+	
+	/**
+	 * Returns the number of requests received (including the failed requests)
+	 *
+	 * @return number of requests
+	 */
+	int requests() {
+		return requests.get();
+	}
+	
+	/**
+	 * Returns the http status of each response, in the order they were sent
+	 *
+	 * @return the response statuses
+	 */
+	List<Integer> statuses() {
+		return List.copyOf(statuses);
+	}
+	
+	/**
+	 * Stop the server
+	 */
+	@Override
+	public void close() {
+		server.stop(0);
+		executor.shutdownNow();
+	}
+	
+	/* -----------------------------------------------------------------------
+	 * Internal methods
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Returns the location of a server path
+	 *
+	 * @param path the server path
+	 * @return the path location
+	 */
+	private URI location(String path) {
+		InetSocketAddress address = server.getAddress();
+		return URI.create("http://" + address.getHostString() + ":" + address.getPort() + path);
+	}
+	
+	/**
+	 * Handle a request
+	 *
+	 * @param exchange the request exchange
+	 * @throws IOException error if the response cannot be sent
+	 */
+	private void handle(HttpExchange exchange) throws IOException {
+		try {
+			requests.incrementAndGet();
+			exchange.getRequestBody().close();
+			Thread.sleep(latency.toMillis());
+			if (pendingStalls.getAndUpdate(it -> Math.max(0, it - 1)) > 0) Thread.sleep(stall.toMillis());
+			
+			// Injected errors
+			if (pendingFailures.getAndUpdate(it -> Math.max(0, it - 1)) > 0) {
+				exchange.getResponseHeaders().set("Retry-After", "0");
+				sendResponseHeaders(exchange, failureStatus, -1);
+				return;
+			}
+			
+			Recording recording = recordings.get(exchange.getRequestURI().getPath());
+			if (recording == null) {
+				sendResponseHeaders(exchange, 404, -1);
+				return;
+			}
+			
+			String body = recording.paged ? page(recording.content, exchange.getRequestURI()) : recording.content;
+			String etag = "\"" + Integer.toHexString(body.hashCode()) + "\"";
+			exchange.getResponseHeaders().set("ETag", etag);
+			if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+				sendResponseHeaders(exchange, 304, -1);
+				return;
+			}
+			
+			byte[] content = body.getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().set("Content-Type", recording.contentType);
+			sendResponseHeaders(exchange, 200, content.length);
+			try (OutputStream output = exchange.getResponseBody()) {
+				output.write(content);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			exchange.close();
+		}
+	}
+	
+	/**
+	 * Send the response headers and record the response status
+	 *
+	 * @param exchange the request exchange
+	 * @param status   the response status
+	 * @param length   the response content length or {@code -1} if the response is empty
+	 * @throws IOException error if the headers cannot be sent
+	 */
+	private void sendResponseHeaders(HttpExchange exchange, int status, long length) throws IOException {
+		statuses.add(status);
+		exchange.sendResponseHeaders(status, length);
+	}
+	
+	/**
+	 * Generate a page of a recorded search response
+	 *
+	 * @param content the recorded search response
+	 * @param uri     the request location
+	 * @return the page content
+	 */
+	private static String page(String content, URI uri) {
+		Map<String, String> parameters = new HashMap<>();
+		for (String item : Objects.requireNonNullElse(uri.getRawQuery(), "").split("&")) {
+			int index = item.indexOf('=');
+			if (index > 0) {
+				parameters.put(item.substring(0, index),
+							   URLDecoder.decode(item.substring(index + 1), StandardCharsets.UTF_8));
+			}
+		}
+		int start = Integer.parseInt(parameters.getOrDefault("start", "0"));
+		int rows = Integer.parseInt(parameters.getOrDefault("rows", "20"));
+		
+		JsonObject json = JsonParser.parseString(content).getAsJsonObject();
+		JsonObject response = json.getAsJsonObject("response");
+		JsonArray docs = response.getAsJsonArray("docs");
+		JsonArray page = new JsonArray();
+		for (int i = start; i < Math.min(docs.size(), start + rows); i++) {
+			page.add(docs.get(i));
+		}
+		response.addProperty("start", start);
+		response.add("docs", page);
+		return json.toString();
+	}
+	
+	/**
+	 * Read a test resource
+	 *
+	 * @param resource the resource name
+	 * @return the resource content
+	 */
+	private static String readResource(String resource) {
+		try (InputStream stream = StubRepositoryServer.class.getResourceAsStream(resource)) {
+			if (stream == null) throw new IllegalStateException("Resource not found: " + resource);
+			return new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	/* -----------------------------------------------------------------------
+	 * Internal types
+	 * -----------------------------------------------------------------------*/
+	
+	/**
+	 * Recorded response
+	 */
+	private static final class Recording {
+		
+		/**
+		 * Response content
+		 */
+		final String content;
+		
+		/**
+		 * Response content type
+		 */
+		final String contentType;
+		
+		/**
+		 * The content is a search response split in pages
+		 */
+		final boolean paged;
+		
+		/**
+		 * Default constructor
+		 *
+		 * @param content     response content
+		 * @param contentType response content type
+		 * @param paged       the content is a search response split in pages
+		 */
+		Recording(String content, String contentType, boolean paged) {
+			this.content = content;
+			this.contentType = contentType;
+			this.paged = paged;
+		}
+		
+	}
+	
+}
@@ -0,0 +1,39 @@
+package ushiosan.custom.jfx;
+
+import custom_jfx_plugin.dependency.base.VersionIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class VersionIndexTest {
+	
+	private final VersionIndex index = new VersionIndex();
+	
+	@Test
+	void compareVersionsNumerically() {
+		assertEquals(Optional.of("21.0.1"), select("latest", "9", "21.0.1", "17.0.10", "21-ea+5", "21.0.1-ea+2"));
+		assertEquals(Optional.of("17.0.10"), select("latest-17", "9", "21.0.1", "17.0.2", "17.0.10"));
+		assertEquals(Optional.of("22-ea+16"), select("early", "22-ea+9", "22-ea+16", "21.0.1", "21-ea+30"));
+		assertEquals(Optional.empty(), select("latest-11", "9", "21.0.1"));
+	}
+	
+	@Test
+	void parseVersionsOnce() {
+		assertSame(index.parse("19.0.2.1"), index.parse("19.0.2.1"));
+		assertNull(index.parse("19.0.2-beta"));
+		assertNull(index.parse("1..2"));
+		assertThrows(IllegalStateException.class, () -> index.selector("newest"));
+		assertThrows(IllegalStateException.class, () -> index.selector("latest-x"));
+	}
+	
+	private Optional<String> select(String specialConfig, String... versions) {
+		return index.selector(specialConfig).select(Stream.of(versions));
+	}
+	
+}